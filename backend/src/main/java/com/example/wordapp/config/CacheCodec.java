@@ -0,0 +1,147 @@
+package com.example.wordapp.config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 缓存值的二进制编码：每个缓存在配置时就确定值的类型，用 Smile（二进制 JSON）编码，不再给每个对象写类名。
+ * <p>
+ * 格式：1 字节魔数 + 1 字节 schema 版本 + 1 字节标志位 + 8 字节写入时间（epoch 毫秒）+ 正文。
+ * 正文超过阈值时用 Deflate 压缩。解码结果为 {@link CachedValue}，写入时间用于 stale-while-revalidate。
+ * 读到魔数或版本对不上的数据（旧格式、旧版本）一律当作未命中，由调用方重新加载后覆盖，
+ * 因此值结构发生不兼容变化时只需要把该缓存的 schema 版本加一，不必再修改 key 前缀；
+ * 新增字段是兼容变化，旧数据里缺的字段为 null，多出的字段被忽略。
+ */
+public class CacheCodec implements RedisSerializer<Object> {
+    static final byte MAGIC = (byte) 0xC8;
+    private static final int HEADER_SIZE = 11;
+    private static final byte FLAG_DEFLATE = 1;
+
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final byte version;
+    private final int compressThreshold;
+
+    public CacheCodec(ObjectMapper mapper, JavaType type, int version, int compressThreshold) {
+        if (version < 0 || version > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("schema version must be 0-127");
+        }
+        this.writer = mapper.writerFor(type);
+        this.reader = mapper.readerFor(type);
+        this.version = (byte) version;
+        this.compressThreshold = compressThreshold;
+    }
+
+    /**
+     * 缓存编码统一使用的 Smile ObjectMapper：不写类型信息，允许字段增减。
+     */
+    public static ObjectMapper smileMapper() {
+        SmileFactory factory = SmileFactory.builder()
+                // 共享重复出现的字段名和短字符串，List<Word> 里每个元素的字段名只写一次
+                .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        CachedValue cached = value instanceof CachedValue stamped ? stamped : CachedValue.now(value);
+        byte[] body;
+        try {
+            body = writer.writeValueAsBytes(cached.value());
+        } catch (IOException ex) {
+            throw new SerializationException("Could not encode cache value: " + ex.getMessage(), ex);
+        }
+        byte flags = 0;
+        if (compressThreshold > 0 && body.length >= compressThreshold) {
+            byte[] compressed = deflate(body);
+            // 压不动的数据（很少见）按原样存
+            if (compressed.length < body.length) {
+                body = compressed;
+                flags |= FLAG_DEFLATE;
+            }
+        }
+        byte[] out = new byte[HEADER_SIZE + body.length];
+        out[0] = MAGIC;
+        out[1] = version;
+        out[2] = flags;
+        ByteBuffer.wrap(out, 3, Long.BYTES).putLong(cached.writtenAtMillis());
+        System.arraycopy(body, 0, out, HEADER_SIZE, body.length);
+        return out;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < HEADER_SIZE || bytes[0] != MAGIC || bytes[1] != version) {
+            return null;
+        }
+        byte[] body = Arrays.copyOfRange(bytes, HEADER_SIZE, bytes.length);
+        try {
+            if ((bytes[2] & FLAG_DEFLATE) != 0) {
+                body = inflate(body);
+            }
+            return new CachedValue(reader.readValue(body), ByteBuffer.wrap(bytes, 3, Long.BYTES).getLong());
+        } catch (IOException | DataFormatException ex) {
+            throw new SerializationException("Could not decode cache value: " + ex.getMessage(), ex);
+        }
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 16);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 3);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("truncated deflate stream");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -1,43 +1,117 @@
 package com.example.wordapp.config;
 
-import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.example.wordapp.dto.StudyOverviewResponse;
+import com.example.wordapp.dto.StudyStatsResponse;
+import com.example.wordapp.dto.WordPageResponse;
+import com.example.wordapp.entity.Word;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
+    @Value("${app.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    // Redis 过期时间在基础 TTL 上随机加 0 ~ N%，避免同一时刻写入的 key 同时过期
+    @Value("${app.cache.ttl-jitter-percent:10}")
+    private int ttlJitterPercent;
+
+    @Value("${app.cache.compress-threshold-bytes:2048}")
+    private int compressThreshold;
+
+    @Value("${app.cache.stale-while-revalidate.caches:}")
+    private List<String> staleWhileRevalidateCaches;
+
+    @Value("${app.cache.stale-while-revalidate.stale-seconds:300}")
+    private long staleSeconds;
+
+    /**
+     * Redis 作为共享的 L2，前面加一层本进程 Caffeine L1，见 {@link TwoLevelCacheManager}。
+     */
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             StringRedisTemplate redisTemplate,
+                                             MeterRegistry meterRegistry,
+                                             @Qualifier("cacheRefreshExecutor") TaskExecutor refreshExecutor,
+                                             @Value("${app.cache.l1.max-weight:100000}") long l1MaxWeight,
+                                             @Value("${app.cache.l1.ttl-seconds:60}") long l1TtlSeconds,
+                                             @Value("${app.cache.redis-lock.enabled:false}") boolean redisLock,
+                                             @Value("${app.cache.redis-lock.timeout-ms:3000}") long lockTimeoutMs) {
+        CacheLoadCoordinator coordinator = new CacheLoadCoordinator(redisTemplate, refreshExecutor,
+                redisLock, Duration.ofMillis(Math.max(100, lockTimeoutMs)));
+        return new TwoLevelCacheManager(redisCacheManager(connectionFactory), redisTemplate, meterRegistry,
+                Math.max(1, l1MaxWeight), Duration.ofSeconds(Math.max(1, l1TtlSeconds)), coordinator,
+                Set.copyOf(staleWhileRevalidateCaches), freshTtl());
+    }
+
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        ObjectMapper mapper = new ObjectMapper()
-                .registerModule(new JavaTimeModule())
-                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        mapper.activateDefaultTypingAsProperty(
-                BasicPolymorphicTypeValidator.builder().allowIfBaseType(Object.class).build(),
-                ObjectMapper.DefaultTyping.EVERYTHING,
-                JsonTypeInfo.Id.CLASS.getDefaultPropertyName()
-        );
-        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer(mapper)))
-                .entryTtl(Duration.ofMinutes(5))
-                .computePrefixWith(cacheName -> "wordapp:v2:" + cacheName + ":");
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(config)
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                   TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(TwoLevelCacheManager.CHANNEL));
+        return container;
+    }
+
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory) {
+        ObjectMapper mapper = CacheCodec.smileMapper();
+        TypeFactory types = mapper.getTypeFactory();
+        JavaType wordList = types.constructCollectionType(List.class, Word.class);
+        // 每个缓存固定值类型和 schema 版本；值结构不兼容地变化时只改这里的版本号
+        Map<String, RedisCacheConfiguration> caches = new HashMap<>();
+        caches.put("wordListV2", cacheConfig("wordListV2", new CacheCodec(mapper, wordList, 1, compressThreshold)));
+        caches.put("incorrectWordsV2", cacheConfig("incorrectWordsV2", new CacheCodec(mapper, wordList, 1, compressThreshold)));
+        caches.put("wordPageV1", cacheConfig("wordPageV1", new CacheCodec(mapper, types.constructType(WordPageResponse.class), 1, compressThreshold)));
+        caches.put("studyStatsV2", cacheConfig("studyStatsV2", new CacheCodec(mapper, types.constructType(StudyStatsResponse.class), 1, compressThreshold)));
+        caches.put("studyOverviewV1", cacheConfig("studyOverviewV1", new CacheCodec(mapper, types.constructType(StudyOverviewResponse.class), 1, compressThreshold)));
+        RedisCacheManager manager = RedisCacheManager.builder(connectionFactory)
+                .withInitialCacheConfigurations(caches)
+                .disableCreateOnMissingCache()
                 .build();
+        manager.initializeCaches();
+        return manager;
+    }
+
+    private RedisCacheConfiguration cacheConfig(String cacheName, CacheCodec codec) {
+        // 开启 stale-while-revalidate 的缓存在新鲜期之后还要在 Redis 里多留一段时间，供后台刷新期间返回旧值
+        Duration ttl = staleWhileRevalidateCaches.contains(cacheName)
+                ? freshTtl().plusSeconds(Math.max(0, staleSeconds))
+                : freshTtl();
+        long baseMillis = ttl.toMillis();
+        long jitterMillis = baseMillis * Math.max(0, ttlJitterPercent) / 100;
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(codec))
+                .entryTtl((key, value) -> Duration.ofMillis(baseMillis + ThreadLocalRandom.current().nextLong(jitterMillis + 1)))
+                .computePrefixWith(name -> "wordapp:v2:" + name + ":");
+    }
+
+    private Duration freshTtl() {
+        return Duration.ofSeconds(Math.max(1, ttlSeconds));
     }
 
     public CacheErrorHandler cacheErrorHandler() {
@@ -0,0 +1,176 @@
+package com.example.wordapp.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 缓存未命中时的加载协调，防止同一个 key 同时被多个请求重复加载（缓存击穿）：
+ * <ul>
+ *     <li>本进程内 single-flight：同一 key 同一时刻只有一个线程执行加载，其它线程等待同一个结果</li>
+ *     <li>可选的 Redis 锁（SET NX PX）：多节点之间也只有一个节点加载，其余节点轮询 Redis 等待结果，
+ *     等待超时后自行加载，锁只是优化，不影响正确性</li>
+ *     <li>stale-while-revalidate 的后台刷新：同一 key 同一时刻只有一个刷新任务，同样受 Redis 锁保护</li>
+ * </ul>
+ */
+public class CacheLoadCoordinator {
+    private static final Logger log = LoggerFactory.getLogger(CacheLoadCoordinator.class);
+    private static final String LOCK_PREFIX = "wordapp:cache-lock:";
+    private static final long POLL_INTERVAL_MILLIS = 50;
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final StringRedisTemplate redisTemplate;
+    private final TaskExecutor refreshExecutor;
+    private final boolean distributedLock;
+    private final Duration lockTimeout;
+
+    public CacheLoadCoordinator(StringRedisTemplate redisTemplate, TaskExecutor refreshExecutor,
+                                boolean distributedLock, Duration lockTimeout) {
+        this.redisTemplate = redisTemplate;
+        this.refreshExecutor = refreshExecutor;
+        this.distributedLock = distributedLock;
+        this.lockTimeout = lockTimeout;
+    }
+
+    /**
+     * 加载一个未命中的 key。
+     *
+     * @param flightKey 缓存名 + key，标识同一份数据
+     * @param recheck   拿到锁或等待其它节点时重新查一次共享缓存，命中则直接返回
+     * @param loader    真正的加载逻辑（查库并写回缓存）
+     */
+    public Object load(String flightKey, Supplier<CachedValue> recheck, Callable<Object> loader) throws Exception {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, mine);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException ex) {
+                throw unwrap(ex);
+            }
+        }
+        try {
+            Object value = loadWithLock(flightKey, recheck, loader);
+            mine.complete(value);
+            return value;
+        } catch (Throwable ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(flightKey, mine);
+        }
+    }
+
+    /**
+     * 在后台刷新一个已过新鲜期的 key；同一 key 已有加载或刷新在进行时什么都不做，线程池满时放弃本次刷新。
+     */
+    public void refreshAsync(String flightKey, Callable<Object> loader) {
+        if (inFlight.containsKey(flightKey) || !refreshing.add(flightKey)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh(flightKey, loader);
+                } catch (Exception ex) {
+                    log.warn("Background refresh of {} failed: {}", flightKey, ex.getMessage());
+                } finally {
+                    refreshing.remove(flightKey);
+                }
+            });
+        } catch (TaskRejectedException ex) {
+            refreshing.remove(flightKey);
+        }
+    }
+
+    // 其它节点正在刷新同一个 key 时直接放弃
+    private void refresh(String flightKey, Callable<Object> loader) throws Exception {
+        if (!distributedLock) {
+            loader.call();
+            return;
+        }
+        String lockKey = LOCK_PREFIX + flightKey;
+        String token = UUID.randomUUID().toString();
+        if (!tryLock(lockKey, token)) {
+            return;
+        }
+        try {
+            loader.call();
+        } finally {
+            unlock(lockKey, token);
+        }
+    }
+
+    private Object loadWithLock(String flightKey, Supplier<CachedValue> recheck, Callable<Object> loader) throws Exception {
+        if (!distributedLock) {
+            return loader.call();
+        }
+        String lockKey = LOCK_PREFIX + flightKey;
+        String token = UUID.randomUUID().toString();
+        long deadline = System.currentTimeMillis() + lockTimeout.toMillis();
+        while (!tryLock(lockKey, token)) {
+            CachedValue loaded = recheck.get();
+            if (loaded != null) {
+                return loaded.value();
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                // 持锁节点太慢或已宕机，自己加载
+                return loader.call();
+            }
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+        try {
+            // 拿到锁时别的节点可能刚写完
+            CachedValue loaded = recheck.get();
+            return loaded != null ? loaded.value() : loader.call();
+        } finally {
+            unlock(lockKey, token);
+        }
+    }
+
+    private boolean tryLock(String lockKey, String token) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, token, lockTimeout));
+        } catch (RuntimeException ex) {
+            // Redis 不可用时退化为只有本进程 single-flight
+            return true;
+        }
+    }
+
+    private void unlock(String lockKey, String token) {
+        try {
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey), token);
+        } catch (RuntimeException ex) {
+            log.debug("Failed to release cache lock {}: {}", lockKey, ex.getMessage());
+        }
+    }
+
+    private static Exception unwrap(CompletionException ex) {
+        Throwable cause = ex.getCause();
+        if (cause instanceof Exception exception) {
+            return exception;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return ex;
+    }
+}
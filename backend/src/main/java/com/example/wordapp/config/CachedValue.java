@@ -0,0 +1,15 @@
+package com.example.wordapp.config;
+
+/**
+ * Redis 里存放的缓存值：业务对象加写入时间，用于判断是否已过"新鲜期"（stale-while-revalidate）。
+ */
+public record CachedValue(Object value, long writtenAtMillis) {
+
+    public static CachedValue now(Object value) {
+        return new CachedValue(value, System.currentTimeMillis());
+    }
+
+    public long ageMillis() {
+        return System.currentTimeMillis() - writtenAtMillis;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.wordapp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 后台定时任务（如学习统计对账），使用 Spring 默认的单线程调度器。
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
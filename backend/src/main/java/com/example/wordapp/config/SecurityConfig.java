@@ -1,6 +1,7 @@
 package com.example.wordapp.config;
 
-import com.example.wordapp.repository.UserRepository;
+import com.example.wordapp.service.CurrentUserResolver;
+import com.example.wordapp.service.PasswordUpgradeService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -31,11 +32,15 @@ import java.util.stream.Collectors;
 @EnableMethodSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
-    private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
+    private final PasswordUpgradeService passwordUpgradeService;
 
     @Value("${app.cors.allowed-origin-patterns}")
     private String allowedOriginPatterns;
 
+    @Value("${app.security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthFilter) throws Exception {
         http
@@ -62,12 +67,15 @@ public class SecurityConfig {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService());
         provider.setPasswordEncoder(passwordEncoder());
+        // 库里的哈希强度低于当前配置时，登录成功后用明文重新哈希并保存
+        provider.setUserDetailsPasswordService(passwordUpgradeService);
         return provider;
     }
 
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByUsername(username)
+        // 只在登录时使用；与业务代码共用同一请求内的用户缓存
+        return username -> currentUserResolver.find(username)
                 .orElseThrow(() -> new UsernameNotFoundException("用户不存在"));
     }
 
@@ -78,7 +86,7 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
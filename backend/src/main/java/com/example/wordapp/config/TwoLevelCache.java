@@ -0,0 +1,221 @@
+package com.example.wordapp.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 两级缓存：L1 为本进程 Caffeine，L2 为共享的 Redis。
+ * 读先查 L1，未命中再查 L2 并回填 L1；写和删同时作用于两级，并通过 {@link TwoLevelCacheManager} 广播，
+ * 让其它节点丢掉各自 L1 里的旧值。L1 直接保存反序列化后的对象，命中时没有网络往返和 JSON 解析，
+ * 调用方拿到的是共享实例，不能修改。过了新鲜期的旧值不回填 L1，保证下次读取还会检查 L2。
+ */
+public class TwoLevelCache implements org.springframework.cache.Cache {
+    private final String name;
+    private final Cache<Object, ValueWrapper> local;
+    private final org.springframework.cache.Cache remote;
+    private final TwoLevelCacheManager manager;
+    private final CacheLoadCoordinator coordinator;
+    // 超过该时长的 Redis 值视为过期但仍可返回（stale-while-revalidate），-1 表示不启用
+    private final long staleAfterMillis;
+    private final Counter l1Hits;
+    private final Counter l2Hits;
+    private final Counter misses;
+    private final Counter staleServed;
+    private final Timer l1Latency;
+    private final Timer l2Latency;
+
+    TwoLevelCache(String name, Cache<Object, ValueWrapper> local, org.springframework.cache.Cache remote,
+                  TwoLevelCacheManager manager, MeterRegistry registry,
+                  CacheLoadCoordinator coordinator, Duration staleAfter) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.manager = manager;
+        this.coordinator = coordinator;
+        this.staleAfterMillis = staleAfter == null ? -1 : staleAfter.toMillis();
+        this.l1Hits = Counter.builder("cache.two_level.gets").tag("cache", name).tag("result", "l1_hit").register(registry);
+        this.l2Hits = Counter.builder("cache.two_level.gets").tag("cache", name).tag("result", "l2_hit").register(registry);
+        this.misses = Counter.builder("cache.two_level.gets").tag("cache", name).tag("result", "miss").register(registry);
+        this.staleServed = Counter.builder("cache.two_level.stale_served").tag("cache", name).register(registry);
+        this.l1Latency = Timer.builder("cache.two_level.latency").tag("cache", name).tag("tier", "l1").register(registry);
+        this.l2Latency = Timer.builder("cache.two_level.latency").tag("cache", name).tag("tier", "l2").register(registry);
+        registry.gauge("cache.two_level.hit_ratio", Tags.of("cache", name), this,
+                TwoLevelCache::hitRatio);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper value = getLocal(localKey);
+        if (value != null) {
+            return value;
+        }
+        CachedValue cached = getRemote(key);
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        l2Hits.increment();
+        if (!isStale(cached)) {
+            local.put(localKey, new SimpleValueWrapper(cached.value()));
+        }
+        return new SimpleValueWrapper(cached.value());
+    }
+
+    /**
+     * 只读 L2（Redis），不看本地 L1。在值上做读-改-写时用，避免从本节点 L1 里已经过时的副本开始修改。
+     */
+    public ValueWrapper getShared(Object key) {
+        CachedValue cached = getRemote(key);
+        return cached == null ? null : new SimpleValueWrapper(cached.value());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        if (value == null) {
+            return null;
+        }
+        Object stored = value.get();
+        if (stored != null && type != null && !type.isInstance(stored)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + stored);
+        }
+        return (T) stored;
+    }
+
+    /**
+     * {@code @Cacheable(sync = true)} 走这里：未命中时经 {@link CacheLoadCoordinator} 单飞加载；
+     * 开启了 stale-while-revalidate 的缓存在值过了新鲜期后照常返回旧值，同时在后台刷新。
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        ValueWrapper value = getLocal(localKey);
+        if (value != null) {
+            return (T) value.get();
+        }
+        CachedValue cached = getRemote(key);
+        if (cached != null) {
+            l2Hits.increment();
+            if (isStale(cached)) {
+                staleServed.increment();
+                coordinator.refreshAsync(flightKey(localKey), () -> loadAndPut(key, valueLoader));
+            } else {
+                local.put(localKey, new SimpleValueWrapper(cached.value()));
+            }
+            return (T) cached.value();
+        }
+        misses.increment();
+        try {
+            return (T) coordinator.load(flightKey(localKey), () -> getRemote(key), () -> loadAndPut(key, valueLoader));
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+    }
+
+    private Object loadAndPut(Object key, Callable<?> valueLoader) throws Exception {
+        Object loaded = valueLoader.call();
+        put(key, loaded);
+        return loaded;
+    }
+
+    private ValueWrapper getLocal(String localKey) {
+        long startedAt = System.nanoTime();
+        ValueWrapper value = local.getIfPresent(localKey);
+        l1Latency.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        if (value != null) {
+            l1Hits.increment();
+        }
+        return value;
+    }
+
+    private CachedValue getRemote(Object key) {
+        long startedAt = System.nanoTime();
+        ValueWrapper value = remote.get(key);
+        l2Latency.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        if (value == null) {
+            return null;
+        }
+        return value.get() instanceof CachedValue cached ? cached : CachedValue.now(value.get());
+    }
+
+    private boolean isStale(CachedValue cached) {
+        return staleAfterMillis >= 0 && cached.ageMillis() > staleAfterMillis;
+    }
+
+    private String flightKey(String localKey) {
+        return name + ":" + localKey;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(localKey(key), new SimpleValueWrapper(value));
+        manager.publishEvict(name, key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        if (existing == null) {
+            local.put(localKey(key), new SimpleValueWrapper(value));
+            manager.publishEvict(name, key);
+            return null;
+        }
+        return existing.get() instanceof CachedValue cached ? new SimpleValueWrapper(cached.value()) : existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(localKey(key));
+        manager.publishEvict(name, key);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        manager.publishClear(name);
+    }
+
+    // 收到其它节点的失效广播时只清本地 L1
+    void evictLocal(String key) {
+        local.invalidate(key);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    // 广播里只能带字符串，L1 统一以 key 的字符串形式存放（缓存 key 都是用户名）
+    static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private double hitRatio() {
+        double hits = l1Hits.count() + l2Hits.count();
+        double total = hits + misses.count();
+        return total == 0 ? 0 : hits / total;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.wordapp.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 在 RedisCacheManager 前面加一层本进程 L1 的缓存管理器。
+ * <ul>
+ *     <li>L1 按"权重"限容：列表按元素个数计重，其它对象计 1，所有缓存各自一份上限</li>
+ *     <li>L1 写入后最多存活 {@code l1Ttl}，比 Redis 的 TTL 短，失效广播丢失时也只会短暂读到旧值</li>
+ *     <li>未命中时经 {@link CacheLoadCoordinator} 单飞加载；{@code staleWhileRevalidate} 中的缓存在写入超过
+ *     {@code staleAfter} 后仍返回旧值并在后台刷新（Redis 里的实际 TTL 相应更长，见 CacheConfig）</li>
+ *     <li>本节点写/删缓存后向 {@link #CHANNEL} 广播 "节点 id|缓存名|key"，其它节点收到后清掉自己的 L1</li>
+ * </ul>
+ */
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+    public static final String CHANNEL = "wordapp:cache:invalidate";
+    private static final Logger log = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+    private static final char SEPARATOR = '|';
+    private static final String CLEAR_ALL = "";
+
+    private final CacheManager remote;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry registry;
+    private final long l1MaxWeight;
+    private final Duration l1Ttl;
+    private final CacheLoadCoordinator coordinator;
+    private final Set<String> staleWhileRevalidate;
+    private final Duration staleAfter;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remote, StringRedisTemplate redisTemplate, MeterRegistry registry,
+                                long l1MaxWeight, Duration l1Ttl, CacheLoadCoordinator coordinator,
+                                Set<String> staleWhileRevalidate, Duration staleAfter) {
+        this.remote = remote;
+        this.redisTemplate = redisTemplate;
+        this.registry = registry;
+        this.l1MaxWeight = l1MaxWeight;
+        this.l1Ttl = l1Ttl;
+        this.coordinator = coordinator;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.staleAfter = staleAfter;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    private TwoLevelCache createCache(String name) {
+        Cache l2 = remote.getCache(name);
+        if (l2 == null) {
+            throw new IllegalStateException("No remote cache named " + name);
+        }
+        com.github.benmanes.caffeine.cache.Cache<Object, Cache.ValueWrapper> l1 = Caffeine.newBuilder()
+                .maximumWeight(l1MaxWeight)
+                .weigher((Weigher<Object, Cache.ValueWrapper>) (key, value) -> weigh(value.get()))
+                .expireAfterWrite(l1Ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, l1, name + ".l1");
+        return new TwoLevelCache(name, l1, l2, this, registry, coordinator,
+                staleWhileRevalidate.contains(name) ? staleAfter : null);
+    }
+
+    private static int weigh(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return Math.max(1, collection.size());
+        }
+        if (value instanceof Map<?, ?> map) {
+            return Math.max(1, map.size());
+        }
+        return 1;
+    }
+
+    void publishEvict(String cacheName, Object key) {
+        publish(cacheName, TwoLevelCache.localKey(key));
+    }
+
+    void publishClear(String cacheName) {
+        publish(cacheName, CLEAR_ALL);
+    }
+
+    private void publish(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + SEPARATOR + cacheName + SEPARATOR + key);
+        } catch (RuntimeException ex) {
+            // 广播失败时其它节点的 L1 最多在 l1Ttl 后过期
+            log.warn("Failed to publish cache invalidation for {}: {}", cacheName, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int first = body.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : body.indexOf(SEPARATOR, first + 1);
+        if (second < 0 || body.substring(0, first).equals(nodeId)) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(body.substring(first + 1, second));
+        if (cache == null) {
+            return;
+        }
+        String key = body.substring(second + 1);
+        if (CLEAR_ALL.equals(key)) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(key);
+        }
+    }
+}
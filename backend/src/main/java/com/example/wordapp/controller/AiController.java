@@ -10,6 +10,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/ai")
 @RequiredArgsConstructor
@@ -17,8 +19,8 @@ public class AiController {
     private final AiService aiService;
 
     @PostMapping("/vocab-analysis")
-    public ResponseEntity<VocabAnalysisResponse> analyze(@RequestBody VocabAnalysisRequest request) {
-        String analysis = aiService.analyzeVocab(request);
-        return ResponseEntity.ok(new VocabAnalysisResponse(analysis));
+    public CompletableFuture<ResponseEntity<VocabAnalysisResponse>> analyze(@RequestBody VocabAnalysisRequest request) {
+        return aiService.analyzeVocab(request)
+                .thenApply(analysis -> ResponseEntity.ok(new VocabAnalysisResponse(analysis)));
     }
 }
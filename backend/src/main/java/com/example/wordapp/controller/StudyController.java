@@ -1,12 +1,16 @@
 package com.example.wordapp.controller;
 
+import com.example.wordapp.dto.DashboardResponse;
+import com.example.wordapp.dto.SchedulerSetting;
 import com.example.wordapp.dto.StudyBehaviorResponse;
 import com.example.wordapp.dto.StudyOverviewResponse;
 import com.example.wordapp.dto.StudyStatsResponse;
 import com.example.wordapp.dto.StudySessionRequest;
 import com.example.wordapp.dto.TodayStudyResponse;
+import com.example.wordapp.service.DashboardService;
 import com.example.wordapp.service.StudyService;
 import com.example.wordapp.util.TimeUtil;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -22,6 +26,7 @@ import java.time.LocalDateTime;
 @RequiredArgsConstructor
 public class StudyController {
     private final StudyService studyService;
+    private final DashboardService dashboardService;
 
     @GetMapping("/stats")
     public ResponseEntity<StudyStatsResponse> stats(@AuthenticationPrincipal UserDetails user) {
@@ -43,15 +48,29 @@ public class StudyController {
                                                     @RequestParam int dailyTarget,
                                                     @RequestParam int newWordRatio,
                                                     @RequestParam(required = false) String importAfter) {
-        LocalDateTime importAfterTime = null;
-        if (importAfter != null && !importAfter.isBlank()) {
-            try {
-                importAfterTime = Instant.parse(importAfter).atZone(TimeUtil.CHINA_ZONE).toLocalDateTime();
-            } catch (Exception ex) {
-                throw new ResponseStatusException(org.springframework.http.HttpStatus.BAD_REQUEST, "importAfter 格式不正确");
-            }
-        }
-        return ResponseEntity.ok(studyService.getTodayStudy(user.getUsername(), dailyTarget, newWordRatio, importAfterTime));
+        return ResponseEntity.ok(studyService.getTodayStudy(user.getUsername(), dailyTarget, newWordRatio, parseImportAfter(importAfter)));
+    }
+
+    /**
+     * 学习首页一次取回 stats / overview / behavior / today，参数与 /today 相同。
+     */
+    @GetMapping("/dashboard")
+    public ResponseEntity<DashboardResponse> dashboard(@AuthenticationPrincipal UserDetails user,
+                                                       @RequestParam int dailyTarget,
+                                                       @RequestParam int newWordRatio,
+                                                       @RequestParam(required = false) String importAfter) {
+        return ResponseEntity.ok(dashboardService.getDashboard(user.getUsername(), dailyTarget, newWordRatio, parseImportAfter(importAfter)));
+    }
+
+    @GetMapping("/scheduler")
+    public ResponseEntity<SchedulerSetting> scheduler(@AuthenticationPrincipal UserDetails user) {
+        return ResponseEntity.ok(studyService.getScheduler(user.getUsername()));
+    }
+
+    @PutMapping("/scheduler")
+    public ResponseEntity<SchedulerSetting> updateScheduler(@AuthenticationPrincipal UserDetails user,
+                                                            @Valid @RequestBody SchedulerSetting request) {
+        return ResponseEntity.ok(studyService.updateScheduler(user.getUsername(), request.scheduler()));
     }
 
     @PostMapping("/record")
@@ -65,4 +84,15 @@ public class StudyController {
         studyService.recordSession(user.getUsername(), request);
         return ResponseEntity.ok().build();
     }
+
+    private static LocalDateTime parseImportAfter(String importAfter) {
+        if (importAfter == null || importAfter.isBlank()) {
+            return null;
+        }
+        try {
+            return Instant.parse(importAfter).atZone(TimeUtil.CHINA_ZONE).toLocalDateTime();
+        } catch (Exception ex) {
+            throw new ResponseStatusException(org.springframework.http.HttpStatus.BAD_REQUEST, "importAfter 格式不正确");
+        }
+    }
 }
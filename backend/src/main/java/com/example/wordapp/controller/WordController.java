@@ -1,12 +1,17 @@
 package com.example.wordapp.controller;
 
+import com.example.wordapp.dto.BatchReviewRequest;
+import com.example.wordapp.dto.ImportJobResponse;
 import com.example.wordapp.dto.ImportResult;
 import com.example.wordapp.dto.ReviewRequest;
+import com.example.wordapp.dto.WordPageResponse;
 import com.example.wordapp.dto.WordPayload;
 import com.example.wordapp.entity.Word;
+import com.example.wordapp.service.ImportJobService;
 import com.example.wordapp.service.WordService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -21,12 +26,27 @@ import java.util.List;
 @RequiredArgsConstructor
 public class WordController {
     private final WordService wordService;
+    private final ImportJobService importJobService;
 
     @GetMapping
     public ResponseEntity<List<Word>> list(@AuthenticationPrincipal UserDetails user, @RequestParam(required = false) String q) {
         return ResponseEntity.ok(wordService.listWords(user.getUsername(), q));
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<WordPageResponse> page(@AuthenticationPrincipal UserDetails user,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "" + WordService.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(wordService.listWordPage(user.getUsername(), cursor, size));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<Word>> search(@AuthenticationPrincipal UserDetails user,
+                                             @RequestParam String q,
+                                             @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(wordService.searchWords(user.getUsername(), q, limit));
+    }
+
     @PostMapping
     public ResponseEntity<Word> create(@AuthenticationPrincipal UserDetails user, @Valid @RequestBody WordPayload payload) {
         return ResponseEntity.ok(wordService.createWord(user.getUsername(), payload));
@@ -48,9 +68,15 @@ public class WordController {
         return ResponseEntity.ok(wordService.review(user.getUsername(), id, request));
     }
 
+    @PostMapping("/review/batch")
+    public ResponseEntity<List<Word>> reviewBatch(@AuthenticationPrincipal UserDetails user, @Valid @RequestBody BatchReviewRequest request) {
+        return ResponseEntity.ok(wordService.reviewBatch(user.getUsername(), request.items()));
+    }
+
     @GetMapping("/due")
-    public ResponseEntity<List<Word>> due(@AuthenticationPrincipal UserDetails user) {
-        return ResponseEntity.ok(wordService.dueWords(user.getUsername()));
+    public ResponseEntity<List<Word>> due(@AuthenticationPrincipal UserDetails user,
+                                          @RequestParam(defaultValue = "0") int limit) {
+        return ResponseEntity.ok(wordService.dueWords(user.getUsername(), limit));
     }
 
     @GetMapping("/incorrect")
@@ -63,4 +89,15 @@ public class WordController {
                                                     @RequestPart("file") MultipartFile file) {
         return ResponseEntity.ok(wordService.importWords(user.getUsername(), file));
     }
+
+    @PostMapping(value = "/import/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJobResponse> submitImportJob(@AuthenticationPrincipal UserDetails user,
+                                                             @RequestPart("file") MultipartFile file) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(importJobService.submit(user.getUsername(), file));
+    }
+
+    @GetMapping("/import/jobs/{jobId}")
+    public ResponseEntity<ImportJobResponse> importJobStatus(@AuthenticationPrincipal UserDetails user, @PathVariable String jobId) {
+        return ResponseEntity.ok(importJobService.getStatus(user.getUsername(), jobId));
+    }
 }
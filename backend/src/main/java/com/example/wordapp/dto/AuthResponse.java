@@ -1,3 +1,3 @@
 package com.example.wordapp.dto;
 
-public record AuthResponse(String token, String username) {}
+public record AuthResponse(String token, String username, String refreshToken) {}
@@ -0,0 +1,12 @@
+package com.example.wordapp.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Instant;
+
+public record BatchReviewItem(
+        @NotNull Long wordId,
+        @NotNull Boolean correct,
+        Instant answeredAt
+) {
+}
@@ -0,0 +1,14 @@
+package com.example.wordapp.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BatchReviewRequest(
+        @NotEmpty(message = "复习记录不能为空")
+        @Size(max = 200, message = "单次最多提交 200 条复习记录")
+        List<@Valid BatchReviewItem> items
+) {
+}
@@ -0,0 +1,15 @@
+package com.example.wordapp.dto;
+
+import java.util.Map;
+
+/**
+ * 学习首页一次取回的全部数据；timingsMs 为各部分耗时（毫秒），便于排查慢在哪里。
+ */
+public record DashboardResponse(
+        StudyStatsResponse stats,
+        StudyOverviewResponse overview,
+        StudyBehaviorResponse behavior,
+        TodayStudyResponse today,
+        Map<String, Long> timingsMs
+) {
+}
@@ -0,0 +1,11 @@
+package com.example.wordapp.dto;
+
+public record ImportJobResponse(
+        String jobId,
+        String status,
+        int linesParsed,
+        int importedCount,
+        int skippedCount,
+        String message
+) {
+}
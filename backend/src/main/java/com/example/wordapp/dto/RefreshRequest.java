@@ -0,0 +1,7 @@
+package com.example.wordapp.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshRequest(
+        @NotBlank(message = "刷新令牌不能为空") String refreshToken
+) {}
@@ -0,0 +1,7 @@
+package com.example.wordapp.dto;
+
+import com.example.wordapp.entity.SchedulerType;
+import jakarta.validation.constraints.NotNull;
+
+public record SchedulerSetting(@NotNull SchedulerType scheduler) {
+}
@@ -0,0 +1,8 @@
+package com.example.wordapp.dto;
+
+import com.example.wordapp.entity.Word;
+
+import java.util.List;
+
+public record WordPageResponse(List<Word> items, String nextCursor) {
+}
@@ -0,0 +1,62 @@
+package com.example.wordapp.entity;
+
+import com.example.wordapp.util.TimeUtil;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 刷新令牌：库里只存 SHA-256 摘要。每次刷新都换发新令牌（同一 familyId），旧令牌记下 usedAt；
+ * 已用过的令牌再次出现说明被盗用，整个家族一起吊销。家族有登录时确定的绝对期限，换发时原样复制，不随刷新顺延。
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "uk_refresh_tokens_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_refresh_tokens_family", columnList = "family_id"),
+        @Index(name = "idx_refresh_tokens_username", columnList = "username"),
+        @Index(name = "idx_refresh_tokens_expires", columnList = "expires_at")
+})
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // 冗余用户名，换发访问令牌时不用再查用户表
+    @Column(nullable = false, length = 64)
+    private String username;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // 加这一列之前签发的令牌为 null
+    @Column(name = "family_expires_at")
+    private LocalDateTime familyExpiresAt;
+
+    private LocalDateTime usedAt;
+
+    private LocalDateTime revokedAt;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) {
+            createdAt = TimeUtil.nowDateTime();
+        }
+    }
+}
@@ -14,7 +14,9 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "review_records")
+@Table(name = "review_records", indexes = {
+        @Index(name = "idx_review_records_word", columnList = "word_id, reviewed_at")
+})
 public class ReviewRecord {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
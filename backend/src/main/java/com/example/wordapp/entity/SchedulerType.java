@@ -0,0 +1,10 @@
+package com.example.wordapp.entity;
+
+/**
+ * 复习调度算法。用户未选择时按 {@link #DEFAULT} 处理。
+ */
+public enum SchedulerType {
+    DEFAULT,
+    SM2,
+    FSRS
+}
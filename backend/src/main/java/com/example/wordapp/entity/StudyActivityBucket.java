@@ -0,0 +1,40 @@
+package com.example.wordapp.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * 学习时长按 (用户, 日期, 小时) 预聚合：记录学习时段时原地累加，
+ * 近 7 天的行为统计最多读 8 * 24 行，与学习次数无关。
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "study_activity_buckets", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_activity_user_date_hour", columnNames = {"user_id", "bucket_date", "bucket_hour"})
+})
+public class StudyActivityBucket {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(name = "bucket_hour", nullable = false)
+    private Integer bucketHour; // 0-23，按学习开始时间
+
+    @Column(nullable = false)
+    private Integer sessionCount;
+
+    @Column(nullable = false)
+    private Long totalSeconds;
+}
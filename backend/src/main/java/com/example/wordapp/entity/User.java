@@ -35,6 +35,15 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private String password;
 
+    // 复习调度算法，为 null 时使用默认算法
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private SchedulerType scheduler;
+
+    // 令牌版本，写在 JWT 里；加一后该用户已签发的令牌全部失效（退出登录时使用），为 null 视为 0
+    @JsonIgnore
+    private Integer tokenVersion;
+
     private LocalDateTime createdAt;
 
     @PrePersist
@@ -0,0 +1,34 @@
+package com.example.wordapp.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 每个用户一行的学习天数汇总，打卡时原地累加，读取时无需加载全部 study_records。
+ * 连续天数指以 lastStudyDate 结尾的连续打卡天数（与原先按记录倒序数连续日期的口径一致）。
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "user_study_stats")
+public class UserStudyStats {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private Integer totalDays;
+
+    @Column(nullable = false)
+    private Integer currentStreak;
+
+    private LocalDate lastStudyDate;
+
+    private LocalDateTime updatedAt;
+}
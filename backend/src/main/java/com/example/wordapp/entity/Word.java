@@ -14,7 +14,13 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "words")
+@Table(name = "words", indexes = {
+        // 单词列表按 (updated_at, id) 倒序做 keyset 分页
+        @Index(name = "idx_words_owner_updated", columnList = "user_id, updated_at, id"),
+        // 今日学习选词：到期词 / 新词按记忆强度取前 N 条
+        @Index(name = "idx_words_owner_due", columnList = "user_id, next_review_at, memory_strength"),
+        @Index(name = "idx_words_owner_familiarity", columnList = "user_id, familiarity, memory_strength")
+})
 public class Word {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -52,6 +58,20 @@ public class Word {
 
     private LocalDateTime nextReviewAt;
 
+    // 冗余最近一次复习时间和次数，复习时无需再查 review_records；为 null 表示历史数据尚未回填
+    private LocalDateTime lastReviewedAt;
+
+    private Integer reviewCount;
+
+    private Integer lapseCount; // 答错次数
+
+    // SM-2 / FSRS 的记忆模型参数（含义见对应调度器），默认算法不使用；切换算法时清空重新开始
+    private Double stability;
+
+    private Double difficulty;
+
+    private Integer repetitions;
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
@@ -71,6 +91,12 @@ public class Word {
         if (memoryStrength == null) {
             memoryStrength = 0.2;
         }
+        if (reviewCount == null) {
+            reviewCount = 0;
+        }
+        if (lapseCount == null) {
+            lapseCount = 0;
+        }
     }
 
     @PreUpdate
@@ -0,0 +1,31 @@
+package com.example.wordapp.repository;
+
+import com.example.wordapp.entity.ReviewRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 复习记录批量写入（ReviewRecord 使用 IDENTITY 主键，Hibernate 不会对 insert 做 JDBC batch）。
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReviewRecordJdbcRepository {
+    private static final String INSERT_SQL = "insert into review_records (word_id, user_id, correct, reviewed_at) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<ReviewRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, records, records.size(), (ps, record) -> {
+            ps.setLong(1, record.getWord().getId());
+            ps.setLong(2, record.getUser().getId());
+            ps.setBoolean(3, record.isCorrect());
+            ps.setObject(4, record.getReviewedAt());
+        });
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ReviewRecordRepository extends JpaRepository<ReviewRecord, Long> {
@@ -17,4 +18,7 @@ public interface ReviewRecordRepository extends JpaRepository<ReviewRecord, Long
     List<ReviewRecord> findIncorrectRecordsWithWord(@Param("username") String username);
 
     ReviewRecord findTopByWordIdOrderByReviewedAtDesc(Long wordId);
+
+    @Query("select rr.word.id, max(rr.reviewedAt) from ReviewRecord rr where rr.word.id in :wordIds group by rr.word.id")
+    List<Object[]> findLastReviewTimes(@Param("wordIds") Collection<Long> wordIds);
 }
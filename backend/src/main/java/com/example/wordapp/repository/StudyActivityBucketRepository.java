@@ -0,0 +1,18 @@
+package com.example.wordapp.repository;
+
+import com.example.wordapp.entity.StudyActivityBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface StudyActivityBucketRepository extends JpaRepository<StudyActivityBucket, Long> {
+    List<StudyActivityBucket> findByUserIdAndBucketDateGreaterThanEqual(Long userId, LocalDate since);
+
+    @Modifying
+    @Query("delete from StudyActivityBucket b where b.bucketDate < :before")
+    int deleteOlderThan(@Param("before") LocalDate before);
+}
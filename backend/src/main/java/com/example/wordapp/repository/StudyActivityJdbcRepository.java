@@ -0,0 +1,42 @@
+package com.example.wordapp.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * study_activity_buckets 的累加写入。JPA 没有 upsert，直接用 MySQL 的 INSERT ... ON DUPLICATE KEY UPDATE，
+ * 并发记录同一小时的学习时段时由唯一键保证只有一行。
+ */
+@Repository
+@RequiredArgsConstructor
+public class StudyActivityJdbcRepository {
+    private static final String UPSERT_SQL = "insert into study_activity_buckets "
+            + "(user_id, bucket_date, bucket_hour, session_count, total_seconds) values (?, ?, ?, 1, ?) "
+            + "on duplicate key update session_count = session_count + 1, total_seconds = total_seconds + values(total_seconds)";
+    private static final String BACKFILL_SQL = "insert into study_activity_buckets "
+            + "(user_id, bucket_date, bucket_hour, session_count, total_seconds) "
+            + "select s.user_id, date(s.started_at), hour(s.started_at), count(*), sum(s.duration_seconds) "
+            + "from study_sessions s where s.started_at >= ? "
+            + "group by s.user_id, date(s.started_at), hour(s.started_at) "
+            + "on duplicate key update session_count = values(session_count), total_seconds = values(total_seconds)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void add(Long userId, LocalDateTime startedAt, int durationSeconds) {
+        jdbcTemplate.update(UPSERT_SQL, userId, startedAt.toLocalDate(), startedAt.getHour(), durationSeconds);
+    }
+
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList("select 1 from study_activity_buckets limit 1").isEmpty();
+    }
+
+    /**
+     * 按 study_sessions 重算 since 之后的全部桶（覆盖已有值）。
+     */
+    public int rebuildSince(LocalDateTime since) {
+        return jdbcTemplate.update(BACKFILL_SQL, since);
+    }
+}
@@ -3,11 +3,14 @@ package com.example.wordapp.repository;
 import com.example.wordapp.entity.StudyRecord;
 import com.example.wordapp.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
 
 public interface StudyRecordRepository extends JpaRepository<StudyRecord, Long> {
     boolean existsByUserAndStudyDate(User user, LocalDate studyDate);
-    List<StudyRecord> findByUserOrderByStudyDateDesc(User user);
+    @Query("select r.studyDate from StudyRecord r where r.user.id = :userId order by r.studyDate desc")
+    List<LocalDate> findStudyDatesDesc(@Param("userId") Long userId);
 }
@@ -1,11 +1,30 @@
 package com.example.wordapp.repository;
 
 import com.example.wordapp.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
+
+    @Query("select coalesce(u.tokenVersion, 0) from User u where u.username = :username")
+    Optional<Integer> findTokenVersion(@Param("username") String username);
+
+    @Modifying
+    @Query("update User u set u.tokenVersion = coalesce(u.tokenVersion, 0) + 1 where u.username = :username")
+    int incrementTokenVersion(@Param("username") String username);
+
+    @Modifying
+    @Query("update User u set u.password = :password where u.username = :username")
+    int updatePassword(@Param("username") String username, @Param("password") String password);
+
+    @Query("select u.id from User u where u.id > :afterId order by u.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
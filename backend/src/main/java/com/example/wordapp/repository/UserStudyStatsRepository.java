@@ -0,0 +1,41 @@
+package com.example.wordapp.repository;
+
+import com.example.wordapp.entity.UserStudyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public interface UserStudyStatsRepository extends JpaRepository<UserStudyStats, Long> {
+    /**
+     * 打卡累加：当天已计入时不更新；昨天打过卡则连续天数 +1，否则重新从 1 开始。
+     *
+     * @return 更新的行数，0 表示汇总行不存在或今天已计入
+     */
+    @Modifying
+    @Query("update UserStudyStats s set s.totalDays = s.totalDays + 1, "
+            + "s.currentStreak = case when s.lastStudyDate = :yesterday then s.currentStreak + 1 else 1 end, "
+            + "s.lastStudyDate = :today, s.updatedAt = :now "
+            + "where s.userId = :userId and (s.lastStudyDate is null or s.lastStudyDate < :today)")
+    int recordStudyDay(@Param("userId") Long userId,
+                       @Param("today") LocalDate today,
+                       @Param("yesterday") LocalDate yesterday,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * 对账写回：只有在读取之后没有新的打卡（lastStudyDate 未变）时才覆盖，避免吞掉并发的累加。
+     */
+    @Modifying
+    @Query("update UserStudyStats s set s.totalDays = :totalDays, s.currentStreak = :currentStreak, "
+            + "s.lastStudyDate = :lastStudyDate, s.updatedAt = :now "
+            + "where s.userId = :userId and ((:observed is null and s.lastStudyDate is null) or s.lastStudyDate = :observed)")
+    int overwrite(@Param("userId") Long userId,
+                  @Param("totalDays") int totalDays,
+                  @Param("currentStreak") int currentStreak,
+                  @Param("lastStudyDate") LocalDate lastStudyDate,
+                  @Param("observed") LocalDate observed,
+                  @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,12 @@
+package com.example.wordapp.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 重建到期队列时只取 id 和下次复习时间。
+ */
+public interface WordDueRow {
+    Long getId();
+
+    LocalDateTime getNextReviewAt();
+}
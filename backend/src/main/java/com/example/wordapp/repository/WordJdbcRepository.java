@@ -0,0 +1,81 @@
+package com.example.wordapp.repository;
+
+import com.example.wordapp.entity.Word;
+import com.example.wordapp.util.TimeUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 单词批量写入。Word 使用 IDENTITY 主键，Hibernate 无法对 insert 做 JDBC batch，
+ * 导入这类大批量场景直接走 JdbcTemplate，配合 MySQL 驱动的 rewriteBatchedStatements
+ * 会被改写成多行 INSERT ... VALUES (...),(...)。
+ */
+@Repository
+@RequiredArgsConstructor
+public class WordJdbcRepository {
+    private static final String INSERT_SQL = "insert into words (term, definition, example, meanings, examples, word_root, "
+            + "similar_words, exam_tag, familiarity, memory_strength, next_review_at, created_at, updated_at, user_id, "
+            + "review_count, lapse_count) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0)";
+
+    // 按 review_records 回填冗余的复习统计；依赖 review_records(word_id, reviewed_at) 索引，按 id 区间分批执行
+    private static final String BACKFILL_REVIEW_STATS_SQL = "update words w join ("
+            + "select word_id, max(reviewed_at) as last_reviewed_at, count(*) as review_count, "
+            + "sum(case when correct then 0 else 1 end) as lapse_count "
+            + "from review_records where word_id between ? and ? group by word_id) r on r.word_id = w.id "
+            + "set w.last_reviewed_at = r.last_reviewed_at, w.review_count = r.review_count, w.lapse_count = r.lapse_count "
+            + "where w.review_count is null and w.id between ? and ?";
+    private static final String BACKFILL_NEVER_REVIEWED_SQL = "update words set review_count = 0, lapse_count = 0 "
+            + "where review_count is null and id between ? and ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return 尚未回填复习统计的单词 id 范围 [min, max]，全部回填完成时返回 null
+     */
+    public long[] findReviewStatsBackfillRange() {
+        return jdbcTemplate.query("select min(id), max(id) from words where review_count is null", rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+        });
+    }
+
+    public int backfillReviewStats(long fromId, long toId) {
+        int updated = jdbcTemplate.update(BACKFILL_REVIEW_STATS_SQL, fromId, toId, fromId, toId);
+        return updated + jdbcTemplate.update(BACKFILL_NEVER_REVIEWED_SQL, fromId, toId);
+    }
+
+    public void insertAll(List<Word> words, Long ownerId) {
+        if (words.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = TimeUtil.nowDateTime();
+        jdbcTemplate.batchUpdate(INSERT_SQL, words, words.size(), (ps, word) -> {
+            ps.setString(1, word.getTerm());
+            ps.setString(2, word.getDefinition());
+            ps.setString(3, word.getExample());
+            ps.setString(4, word.getMeanings());
+            ps.setString(5, word.getExamples());
+            ps.setString(6, word.getWordRoot());
+            ps.setString(7, word.getSimilarWords());
+            ps.setString(8, word.getExamTag());
+            ps.setInt(9, word.getFamiliarity() == null ? 0 : word.getFamiliarity());
+            ps.setDouble(10, word.getMemoryStrength() == null ? 0.2 : word.getMemoryStrength());
+            if (word.getNextReviewAt() == null) {
+                ps.setNull(11, Types.TIMESTAMP);
+            } else {
+                ps.setObject(11, word.getNextReviewAt());
+            }
+            ps.setObject(12, now);
+            ps.setObject(13, now);
+            ps.setLong(14, ownerId);
+        });
+    }
+}
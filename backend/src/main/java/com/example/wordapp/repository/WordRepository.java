@@ -1,23 +1,90 @@
 package com.example.wordapp.repository;
 
 import com.example.wordapp.entity.Word;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface WordRepository extends JpaRepository<Word, Long> {
     List<Word> findByOwnerUsernameOrderByUpdatedAtDesc(String username);
 
-    List<Word> findByOwnerUsernameAndTermContainingIgnoreCaseOrderByUpdatedAtDesc(String username, String term);
+    @Query("select w from Word w where w.owner.username = :username order by w.updatedAt desc, w.id desc")
+    List<Word> findFirstPage(@Param("username") String username, Pageable pageable);
+
+    /**
+     * MySQL 倒序时 NULL 排在最后，updatedAt 为空的旧数据位于所有有时间的单词之后。
+     */
+    @Query("select w from Word w where w.owner.username = :username "
+            + "and (w.updatedAt < :updatedAt or (w.updatedAt = :updatedAt and w.id < :id) or w.updatedAt is null) "
+            + "order by w.updatedAt desc, w.id desc")
+    List<Word> findPageAfter(@Param("username") String username,
+                             @Param("updatedAt") LocalDateTime updatedAt,
+                             @Param("id") Long id,
+                             Pageable pageable);
+
+    /**
+     * 上一页停在 updatedAt 为空的单词上时，后面只剩 updatedAt 为空的单词，按 id 倒序继续。
+     */
+    @Query("select w from Word w where w.owner.username = :username and w.updatedAt is null and w.id < :id "
+            + "order by w.id desc")
+    List<Word> findUndatedPageAfter(@Param("username") String username, @Param("id") Long id, Pageable pageable);
 
     Optional<Word> findByIdAndOwnerUsername(Long id, String username);
 
-    @Query("select w from Word w where w.owner.username = :username and (w.nextReviewAt is null or w.nextReviewAt <= :now) order by w.nextReviewAt")
-    List<Word> findDueWords(@Param("username") String username, @Param("now") LocalDateTime now);
+    List<Word> findByOwnerUsernameAndIdIn(String username, Collection<Long> ids);
+
+    // 复习时需要用户选择的调度算法，连同 owner 一次查出
+    @Query("select w from Word w join fetch w.owner o where w.id = :id and o.username = :username")
+    Optional<Word> findForReview(@Param("id") Long id, @Param("username") String username);
+
+    @Query("select w from Word w join fetch w.owner o where o.username = :username and w.id in :ids")
+    List<Word> findForReview(@Param("username") String username, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update Word w set w.stability = null, w.difficulty = null, w.repetitions = null where w.owner.id = :userId")
+    int resetSchedulerState(@Param("userId") Long userId);
+
+    @Query("select w.id as id, w.term as term, w.definition as definition, w.meanings as meanings "
+            + "from Word w where w.owner.username = :username")
+    List<WordSearchRow> findSearchRows(@Param("username") String username);
+
+    @Query("select w.id from Word w where w.owner.username = :username and (w.nextReviewAt is null or w.nextReviewAt <= :now) order by w.nextReviewAt, w.id")
+    List<Long> findDueIds(@Param("username") String username, @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("select w.id as id, w.nextReviewAt as nextReviewAt from Word w where w.owner.username = :username")
+    List<WordDueRow> findDueRows(@Param("username") String username);
+
+    // 今日学习选词：只查 id 并在库里完成过滤、排序和 limit，命中的行再按 id 加载
+    @Query("select w.id from Word w where w.owner.id = :userId and (w.nextReviewAt is null or w.nextReviewAt <= :now) "
+            + "and (:importAfter is null or w.createdAt >= :importAfter) "
+            + "order by w.memoryStrength asc, w.nextReviewAt asc, w.id asc")
+    List<Long> findDueIdsForStudy(@Param("userId") Long userId,
+                                  @Param("now") LocalDateTime now,
+                                  @Param("importAfter") LocalDateTime importAfter,
+                                  Pageable pageable);
+
+    @Query("select w.id from Word w where w.owner.id = :userId and (w.familiarity is null or w.familiarity <= 0) "
+            + "and (:importAfter is null or w.createdAt >= :importAfter) and w.id not in :excludeIds "
+            + "order by w.memoryStrength asc, w.updatedAt desc, w.id desc")
+    List<Long> findNewIdsForStudy(@Param("userId") Long userId,
+                                  @Param("importAfter") LocalDateTime importAfter,
+                                  @Param("excludeIds") Collection<Long> excludeIds,
+                                  Pageable pageable);
+
+    @Query("select w.id from Word w where w.owner.id = :userId "
+            + "and (:importAfter is null or w.createdAt >= :importAfter) and w.id not in :excludeIds "
+            + "order by w.updatedAt desc, w.id desc")
+    List<Long> findRecentIdsForStudy(@Param("userId") Long userId,
+                                     @Param("importAfter") LocalDateTime importAfter,
+                                     @Param("excludeIds") Collection<Long> excludeIds,
+                                     Pageable pageable);
 
     long countByOwnerUsername(String username);
 
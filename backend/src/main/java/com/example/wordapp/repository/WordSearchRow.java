@@ -0,0 +1,14 @@
+package com.example.wordapp.repository;
+
+/**
+ * 构建搜索索引时只取需要的列，避免把整行 Word 加载进来。
+ */
+public interface WordSearchRow {
+    Long getId();
+
+    String getTerm();
+
+    String getDefinition();
+
+    String getMeanings();
+}
@@ -2,50 +2,205 @@ package com.example.wordapp.service;
 
 import com.example.wordapp.dto.VocabAnalysisRequest;
 import com.example.wordapp.dto.VocabAnswerItem;
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+/**
+ * 词汇量测验的 AI 分析。上游调用走 JDK HttpClient（连接复用、支持 HTTP/2）的异步接口，请求线程不等待：
+ * <ul>
+ *     <li>超时：连接超时、单次请求超时，以及含重试在内的整体超时</li>
+ *     <li>并发上限：同时进行的上游调用最多 {@code max-concurrent} 个，超出的请求直接降级</li>
+ *     <li>重试：429、5xx 和网络错误按指数退避加随机抖动重试，优先遵循上游的 Retry-After</li>
+ *     <li>熔断：连续失败达到阈值后一段时间内不再调用上游（{@link CircuitBreaker}）</li>
+ * </ul>
+ * 降级时返回按得分生成的基础分析，不报错。{@code app.ai.api-base} 可指向本地桩服务（见测试代码中的 tools/AiStubServer）做联调。
+ */
 @Service
-@RequiredArgsConstructor
 public class AiService {
-    @Value("${app.ai.api-key:}")
-    private String apiKey;
+    private static final Logger log = LoggerFactory.getLogger(AiService.class);
 
-    @Value("${app.ai.api-base:https://api.openai.com}")
-    private String apiBase;
+    private final String apiKey;
+    private final URI completionsUri;
+    private final String model;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final long totalTimeoutMillis;
+    private final Semaphore bulkhead;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final CircuitBreaker circuitBreaker;
 
-    @Value("${app.ai.model:gpt-5.2}")
-    private String model;
-
-    private final RestTemplate restTemplate = new RestTemplate();
+    public AiService(ObjectMapper objectMapper,
+                     @Value("${app.ai.api-key:}") String apiKey,
+                     @Value("${app.ai.api-base:https://api.openai.com}") String apiBase,
+                     @Value("${app.ai.model:gpt-5.2}") String model,
+                     @Value("${app.ai.connect-timeout-ms:3000}") long connectTimeoutMillis,
+                     @Value("${app.ai.request-timeout-ms:20000}") long requestTimeoutMillis,
+                     @Value("${app.ai.total-timeout-ms:25000}") long totalTimeoutMillis,
+                     @Value("${app.ai.max-concurrent:8}") int maxConcurrent,
+                     @Value("${app.ai.retry.max-attempts:3}") int maxAttempts,
+                     @Value("${app.ai.retry.base-delay-ms:500}") long baseDelayMillis,
+                     @Value("${app.ai.retry.max-delay-ms:4000}") long maxDelayMillis,
+                     @Value("${app.ai.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                     @Value("${app.ai.circuit-breaker.open-seconds:30}") long openSeconds) {
+        this.objectMapper = objectMapper;
+        this.apiKey = apiKey;
+        this.completionsUri = URI.create(completionsUrl(apiBase));
+        this.model = model;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(Math.max(1, connectTimeoutMillis)))
+                .build();
+        this.requestTimeout = Duration.ofMillis(Math.max(1, requestTimeoutMillis));
+        this.totalTimeoutMillis = Math.max(1, totalTimeoutMillis);
+        this.bulkhead = new Semaphore(Math.max(1, maxConcurrent));
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMillis = Math.max(0, baseDelayMillis);
+        this.maxDelayMillis = Math.max(this.baseDelayMillis, maxDelayMillis);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, Duration.ofSeconds(Math.max(1, openSeconds)));
+    }
 
-    public String analyzeVocab(VocabAnalysisRequest request) {
+    public CompletableFuture<String> analyzeVocab(VocabAnalysisRequest request) {
         if (apiKey == null || apiKey.isBlank()) {
             throw new IllegalStateException("AI API key not configured");
         }
+        if (!circuitBreaker.tryAcquire()) {
+            return CompletableFuture.completedFuture(fallback(request));
+        }
+        if (!bulkhead.tryAcquire()) {
+            circuitBreaker.release();
+            log.warn("AI call rejected: too many calls in flight");
+            return CompletableFuture.completedFuture(fallback(request));
+        }
 
-        String resolvedApiBase = (apiBase == null || apiBase.isBlank()) ? "https://api.openai.com" : apiBase;
-        String url = resolvedApiBase.endsWith("/") ? resolvedApiBase.substring(0, resolvedApiBase.length() - 1) : resolvedApiBase;
-        if (url.endsWith("/v1")) {
-            url = url.substring(0, url.length() - 3);
+        HttpRequest httpRequest;
+        try {
+            httpRequest = HttpRequest.newBuilder(completionsUri)
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer " + apiKey)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(buildPayload(request))))
+                    .build();
+        } catch (JsonProcessingException ex) {
+            bulkhead.release();
+            circuitBreaker.release();
+            throw new IllegalStateException("Failed to encode AI request", ex);
         }
-        url = url + "/v1/chat/completions";
 
-        String summary = buildSummary(request);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(totalTimeoutMillis);
+        CompletableFuture<String> call = attempt(httpRequest, 1, deadline);
+        // 并发名额在上游调用真正结束时才归还；整体超时只决定何时给用户返回降级结果
+        call.whenComplete((content, ex) -> bulkhead.release());
+        return call.copy()
+                .orTimeout(totalTimeoutMillis, TimeUnit.MILLISECONDS)
+                .handle((content, ex) -> {
+                    if (ex == null) {
+                        circuitBreaker.onSuccess();
+                        return content;
+                    }
+                    circuitBreaker.onFailure();
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    log.warn("AI call failed, using fallback analysis: {}", cause.toString());
+                    return fallback(request);
+                });
+    }
+
+    private CompletableFuture<String> attempt(HttpRequest httpRequest, int attempt, long deadline) {
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .handle((response, ex) -> {
+                    if (ex != null) {
+                        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                        // 网络错误和单次请求超时（HttpTimeoutException 也是 IOException）可以重试
+                        return cause instanceof IOException && attempt < maxAttempts
+                                ? retry(httpRequest, attempt, deadline, -1)
+                                : CompletableFuture.<String>failedFuture(cause);
+                    }
+                    int status = response.statusCode();
+                    if (status >= 200 && status < 300) {
+                        try {
+                            return CompletableFuture.completedFuture(extractContent(response.body()));
+                        } catch (RuntimeException parseError) {
+                            return CompletableFuture.<String>failedFuture(parseError);
+                        }
+                    }
+                    if ((status == 429 || status >= 500) && attempt < maxAttempts) {
+                        return retry(httpRequest, attempt, deadline, retryAfterMillis(response));
+                    }
+                    return CompletableFuture.<String>failedFuture(
+                            new IllegalStateException("AI upstream returned HTTP " + status));
+                })
+                .thenCompose(future -> future);
+    }
+
+    // 全抖动的指数退避：在 [0, min(max, base * 2^(n-1))] 内随机；上游给了 Retry-After 时以它为准（同样不超过上限）。
+    // 等待后会超过整体截止时间的就不再重试
+    private CompletableFuture<String> retry(HttpRequest httpRequest, int attempt, long deadline, long retryAfterMillis) {
+        long delay = retryAfterMillis >= 0
+                ? Math.min(maxDelayMillis, retryAfterMillis)
+                : ThreadLocalRandom.current().nextLong(Math.min(maxDelayMillis, baseDelayMillis << (attempt - 1)) + 1);
+        if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay) >= deadline) {
+            return CompletableFuture.failedFuture(new IllegalStateException("AI retry budget exhausted after " + attempt + " attempts"));
+        }
+        return CompletableFuture.supplyAsync(() -> httpRequest, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                .thenCompose(request -> attempt(request, attempt + 1, deadline));
+    }
+
+    private static long retryAfterMillis(HttpResponse<?> response) {
+        return response.headers().firstValue("Retry-After")
+                .map(value -> {
+                    try {
+                        return Long.parseLong(value.trim()) * 1000;
+                    } catch (NumberFormatException ex) {
+                        return -1L;
+                    }
+                })
+                .orElse(-1L);
+    }
+
+    private String extractContent(String body) {
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(body);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("AI response is not valid JSON", ex);
+        }
+        JsonNode choices = root.path("choices");
+        if (!choices.isArray() || choices.isEmpty()) {
+            throw new IllegalStateException("AI response has no choices");
+        }
+        JsonNode content = choices.get(0).path("message").path("content");
+        if (content.isMissingNode() || content.isNull()) {
+            throw new IllegalStateException("AI response has no content");
+        }
+        return content.asText().trim();
+    }
 
+    private Map<String, Object> buildPayload(VocabAnalysisRequest request) {
         List<Map<String, String>> messages = new ArrayList<>();
         messages.add(Map.of(
                 "role", "system",
@@ -58,40 +213,43 @@ public class AiService {
         ));
         messages.add(Map.of(
                 "role", "user",
-                "content", summary
+                "content", buildSummary(request)
         ));
 
         Map<String, Object> payload = new LinkedHashMap<>();
         payload.put("model", model);
         payload.put("messages", messages);
         payload.put("temperature", 0.3);
+        return payload;
+    }
 
-        String safeApiKey = Objects.requireNonNull(apiKey, "AI API key not configured");
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(safeApiKey);
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(payload, headers);
-        @SuppressWarnings("unchecked")
-        ResponseEntity<Map<String, Object>> response =
-                (ResponseEntity<Map<String, Object>>) (ResponseEntity<?>) restTemplate.postForEntity(url, entity, Map.class);
-        Map<String, Object> body = response.getBody();
-        if (body == null || !body.containsKey("choices")) {
-            throw new IllegalStateException("AI response is empty");
-        }
-
-        List<?> choices = (List<?>) body.get("choices");
-        if (choices.isEmpty()) {
-            throw new IllegalStateException("AI response has no choices");
+    private static String completionsUrl(String apiBase) {
+        String resolvedApiBase = (apiBase == null || apiBase.isBlank()) ? "https://api.openai.com" : apiBase;
+        String url = resolvedApiBase.endsWith("/") ? resolvedApiBase.substring(0, resolvedApiBase.length() - 1) : resolvedApiBase;
+        if (url.endsWith("/v1")) {
+            url = url.substring(0, url.length() - 3);
         }
+        return url + "/v1/chat/completions";
+    }
 
-        Map<?, ?> first = (Map<?, ?>) choices.get(0);
-        Map<?, ?> message = (Map<?, ?>) first.get("message");
-        Object content = message != null ? message.get("content") : null;
-        if (content == null) {
-            throw new IllegalStateException("AI response has no content");
-        }
-        return content.toString().trim();
+    /**
+     * AI 不可用时的基础分析：只根据得分和预估水平给出固定格式的结论和建议。
+     */
+    private String fallback(VocabAnalysisRequest request) {
+        int total = Math.max(1, request.total());
+        int percent = (int) Math.round(request.score() * 100.0 / total);
+        int bars = Math.max(1, Math.min(10, (percent + 5) / 10));
+        String advice = percent >= 80
+                ? "1. 词汇基础较好，可以转向阅读原文和高阶词书。\n2. 重点复习错题涉及的词，关注近义词辨析。"
+                : percent >= 50
+                ? "1. 每天固定时间背新词并按计划复习，先巩固中频词。\n2. 错题中的词加入单词本，结合例句记忆。"
+                : "1. 从基础高频词开始，每天少量多次复习。\n2. 先认识词义再求拼写，错题词优先复习。";
+        return "AI 分析暂时不可用，以下为基础分析。\n\n"
+                + "《水平分析》\n"
+                + "预估水平：" + request.levelEstimate() + "，正确率 " + percent + "%\n"
+                + "|" + "█".repeat(bars) + " ".repeat(10 - bars) + "|\n\n"
+                + "《提升建议》\n"
+                + advice;
     }
 
     private String buildSummary(VocabAnalysisRequest request) {
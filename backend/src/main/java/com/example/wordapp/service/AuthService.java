@@ -4,28 +4,138 @@ import com.example.wordapp.dto.AuthRequest;
 import com.example.wordapp.dto.AuthResponse;
 import com.example.wordapp.dto.RegisterRequest;
 import com.example.wordapp.entity.User;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 注册和登录都要做 BCrypt 哈希，整个过程放到有界的 passwordHashExecutor 上执行，请求线程不等待：
+ * 队列满时立即返回 429，排队加执行超过 {@code app.security.bcrypt.timeout-ms} 返回 503。
+ * 访问令牌过期后客户端用刷新令牌换新（{@link #refresh}），不再走密码校验。
+ */
 @Service
-@RequiredArgsConstructor
 public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
     private final UserService userService;
+    private final TokenVersionService tokenVersionService;
+    private final RefreshTokenService refreshTokenService;
+    private final TaskExecutor passwordHashExecutor;
+    private final long timeoutMillis;
+
+    public AuthService(AuthenticationManager authenticationManager,
+                       JwtService jwtService,
+                       UserService userService,
+                       TokenVersionService tokenVersionService,
+                       RefreshTokenService refreshTokenService,
+                       @Qualifier("passwordHashExecutor") TaskExecutor passwordHashExecutor,
+                       @Value("${app.security.bcrypt.timeout-ms:5000}") long timeoutMillis) {
+        this.authenticationManager = authenticationManager;
+        this.jwtService = jwtService;
+        this.userService = userService;
+        this.tokenVersionService = tokenVersionService;
+        this.refreshTokenService = refreshTokenService;
+        this.passwordHashExecutor = passwordHashExecutor;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public CompletableFuture<AuthResponse> register(RegisterRequest request) {
+        return offload(() -> {
+            User user = userService.register(request);
+            return issueTokens(user);
+        });
+    }
+
+    public CompletableFuture<AuthResponse> login(AuthRequest request) {
+        return offload(() -> {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.username(), request.password())
+            );
+            // 认证时已经加载过用户，直接复用，不再按用户名查一次库
+            User user = authentication.getPrincipal() instanceof User loaded
+                    ? loaded
+                    : userService.findByUsername(request.username());
+            return issueTokens(user);
+        });
+    }
+
+    /**
+     * 用刷新令牌换新的访问令牌和刷新令牌：不校验密码、不查用户表，令牌版本走 {@link TokenVersionService} 的缓存。
+     */
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenService.Rotated rotated = refreshTokenService.rotate(refreshToken);
+        int version = tokenVersionService.currentVersion(rotated.username());
+        if (version < 0) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "用户不存在");
+        }
+        User user = User.builder()
+                .id(rotated.userId())
+                .username(rotated.username())
+                .tokenVersion(version)
+                .build();
+        return new AuthResponse(jwtService.generateToken(user), user.getUsername(), rotated.refreshToken());
+    }
+
+    /**
+     * 退出登录：吊销该用户已签发的全部访问令牌和刷新令牌（所有设备）。
+     */
+    public void logout(String username) {
+        tokenVersionService.revokeAll(username);
+        refreshTokenService.revokeAll(username);
+    }
 
-    public AuthResponse register(RegisterRequest request) {
-        User user = userService.register(request);
-        return new AuthResponse(jwtService.generateToken(user), user.getUsername());
+    private AuthResponse issueTokens(User user) {
+        return new AuthResponse(jwtService.generateToken(user), user.getUsername(), refreshTokenService.issue(user));
     }
 
-    public AuthResponse login(AuthRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.username(), request.password())
-        );
-        User user = userService.findByUsername(request.username());
-        return new AuthResponse(jwtService.generateToken(user), user.getUsername());
+    /**
+     * orTimeout 只会让返回的 future 超时失败，不会停下已经提交的任务。任务开始执行时先检查：
+     * future 已经超时（或被取消）、或提交时记下的截止时间已过，就不再做 BCrypt，
+     * 超时请求排在队列里的任务只占一次出队的开销，不会在客户端收到 503 之后还把哈希算完。
+     */
+    private <T> CompletableFuture<T> offload(Supplier<T> task) {
+        long timeout = Math.max(1, timeoutMillis);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            passwordHashExecutor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                if (System.nanoTime() - deadline >= 0) {
+                    future.completeExceptionally(new TimeoutException());
+                    return;
+                }
+                try {
+                    future.complete(task.get());
+                } catch (Throwable ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (TaskRejectedException ex) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "登录请求过多，请稍后再试");
+        }
+        return future
+                .orTimeout(timeout, TimeUnit.MILLISECONDS)
+                .exceptionally(ex -> {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause instanceof TimeoutException) {
+                        throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "服务繁忙，请稍后再试");
+                    }
+                    throw cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+                });
     }
 }
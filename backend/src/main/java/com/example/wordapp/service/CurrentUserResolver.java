@@ -0,0 +1,44 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.entity.User;
+import com.example.wordapp.repository.UserRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Optional;
+
+/**
+ * 按用户名取 User，同一个请求内只查一次库：第一次查询后记在 request attribute 上，请求结束即丢弃。
+ * 鉴权本身不查库（principal 是只有身份信息的 {@link JwtPrincipal}），只有业务确实需要完整 User 时才走到这里。
+ * 没有请求上下文（如异步导入线程）时每次都查库。返回的实体可能不在当前持久化上下文中，只用于读取和作为关联引用。
+ */
+@Component
+public class CurrentUserResolver {
+    private static final String ATTRIBUTE_PREFIX = CurrentUserResolver.class.getName() + ".";
+
+    private final UserRepository userRepository;
+
+    public CurrentUserResolver(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public User resolve(String username) {
+        return find(username).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "用户不存在"));
+    }
+
+    public Optional<User> find(String username) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        String attribute = ATTRIBUTE_PREFIX + username;
+        if (attributes != null && attributes.getAttribute(attribute, RequestAttributes.SCOPE_REQUEST) instanceof User memo) {
+            return Optional.of(memo);
+        }
+        Optional<User> user = userRepository.findByUsername(username);
+        if (attributes != null && user.isPresent()) {
+            attributes.setAttribute(attribute, user.get(), RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.dto.DashboardResponse;
+import com.example.wordapp.dto.StudyBehaviorResponse;
+import com.example.wordapp.dto.StudyOverviewResponse;
+import com.example.wordapp.dto.StudyStatsResponse;
+import com.example.wordapp.dto.TodayStudyResponse;
+import com.example.wordapp.entity.User;
+import com.example.wordapp.entity.UserStudyStats;
+import com.example.wordapp.repository.WordRepository;
+import com.example.wordapp.util.TimeUtil;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 学习首页聚合接口：用户只查一次，互不依赖的查询（今日复习数、打卡汇总、学习时段、单词数、到期数）并发执行，
+ * stats / overview / behavior / today 共用这些中间结果，不再各自重复查询。
+ * 今日选词依赖学习时段（调整目标）和今日复习数，在两者完成后继续执行。
+ * <p>
+ * 整体超时从进入方法时算起。超时或某个查询失败后取消其余查询：还在队列里的不再执行，
+ * 超时之后才开始的（包括线程池满时由 CallerRunsPolicy 退回请求线程执行的）直接放弃；
+ * 已经在执行的查询无法中断，会跑完但结果被丢弃。
+ */
+@Service
+public class DashboardService {
+    private final StudyService studyService;
+    private final StudyStatsService studyStatsService;
+    private final DueQueueService dueQueue;
+    private final WordRepository wordRepository;
+    private final ThreadPoolTaskExecutor executor;
+
+    @Value("${app.dashboard.timeout-ms:5000}")
+    private long timeoutMs;
+
+    public DashboardService(StudyService studyService,
+                            StudyStatsService studyStatsService,
+                            DueQueueService dueQueue,
+                            WordRepository wordRepository,
+                            @Qualifier("dashboardExecutor") ThreadPoolTaskExecutor executor) {
+        this.studyService = studyService;
+        this.studyStatsService = studyStatsService;
+        this.dueQueue = dueQueue;
+        this.wordRepository = wordRepository;
+        this.executor = executor;
+    }
+
+    public DashboardResponse getDashboard(String username, int dailyTarget, int newWordRatio, LocalDateTime importAfter) {
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Map<String, Long> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+        User user = timed(timings, "user", () -> studyService.findUser(username));
+
+        CompletableFuture<Long> todayCount = async(timings, deadline, "todayCount", () -> studyService.countTodayReviews(user));
+        CompletableFuture<UserStudyStats> studyDays =
+                async(timings, deadline, "studyDays", () -> studyStatsService.get(user.getId()));
+        CompletableFuture<StudyActivityService.ActivitySummary> activity =
+                async(timings, deadline, "activity", () -> studyService.recentActivity(user));
+        CompletableFuture<Long> wordCount =
+                async(timings, deadline, "wordCount", () -> wordRepository.countByOwnerUsername(username));
+        CompletableFuture<Long> dueCount =
+                async(timings, deadline, "dueCount", () -> dueQueue.countDue(username, TimeUtil.nowDateTime()));
+
+        CompletableFuture<TodayStudyResponse> today = activity.thenCombine(todayCount, (summary, count) ->
+                        StudyService.adjustDailyTarget(dailyTarget, summary))
+                .thenComposeAsync(target -> async(timings, deadline, "today", () -> studyService.selectTodayWords(
+                        user, target, newWordRatio, importAfter, todayCount.join())), executor);
+
+        List<CompletableFuture<?>> sections = List.of(todayCount, studyDays, activity, wordCount, dueCount, today);
+        try {
+            CompletableFuture.allOf(sections.toArray(new CompletableFuture<?>[0]))
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            cancel(sections);
+            throw timeout();
+        } catch (InterruptedException ex) {
+            cancel(sections);
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "首页数据加载被中断");
+        } catch (ExecutionException ex) {
+            cancel(sections);
+            RuntimeException cause = unwrap(ex.getCause());
+            // 超时之后才开始的查询被放弃
+            throw cause instanceof CancellationException ? timeout() : cause;
+        }
+
+        StudyStatsResponse stats = StudyService.toStats(studyDays.join(), todayCount.join());
+        StudyOverviewResponse overview = new StudyOverviewResponse(stats, wordCount.join(), dueCount.join());
+        StudyBehaviorResponse behavior = StudyService.toBehavior(activity.join(), studyDays.join().getCurrentStreak());
+        timings.put("total", (System.nanoTime() - startedAt) / 1_000_000);
+        return new DashboardResponse(stats, overview, behavior, today.join(), new LinkedHashMap<>(timings));
+    }
+
+    private <T> CompletableFuture<T> async(Map<String, Long> timings, long deadline, String section, Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (System.nanoTime() - deadline >= 0) {
+                throw new CancellationException();
+            }
+            return timed(timings, section, supplier);
+        }, executor);
+    }
+
+    // 已取消的 future 出队时 supplyAsync 不会再调用 supplier
+    private static void cancel(List<CompletableFuture<?>> sections) {
+        for (CompletableFuture<?> section : sections) {
+            section.cancel(false);
+        }
+    }
+
+    private static <T> T timed(Map<String, Long> timings, String section, Supplier<T> supplier) {
+        long startedAt = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            timings.put(section, (System.nanoTime() - startedAt) / 1_000_000);
+        }
+    }
+
+    private static ResponseStatusException timeout() {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "首页数据加载超时，请稍后再试");
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new IllegalStateException(cause);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.entity.SchedulerType;
+import org.springframework.stereotype.Component;
+
+/**
+ * 原有调度规则：答错 6 小时后复习，记忆强度低于 0.3 时 12 小时后复习，
+ * 否则按记忆强度、间隔和熟悉度估算天数，最长 60 天。
+ */
+@Component
+public class DefaultReviewScheduler implements ReviewScheduler {
+    private static final int MAX_INTERVAL_DAYS = 60;
+
+    @Override
+    public SchedulerType type() {
+        return SchedulerType.DEFAULT;
+    }
+
+    @Override
+    public void review(ReviewState state, boolean correct, double elapsedDays) {
+        int intervalDays = ReviewScheduler.wholeDays(elapsedDays);
+        state.updateMastery(correct, intervalDays);
+        if (!correct) {
+            state.intervalMinutes = RELEARN_MINUTES;
+            return;
+        }
+        if (state.memoryStrength < 0.3) {
+            state.intervalMinutes = 12 * 60;
+            return;
+        }
+        double base = 1 + state.memoryStrength * 8 + Math.log1p(intervalDays) + state.familiarity * 1.5;
+        int days = (int) Math.round(Math.min(MAX_INTERVAL_DAYS, Math.max(1, base)));
+        state.intervalMinutes = days * MINUTES_PER_DAY;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.entity.Word;
+import com.example.wordapp.repository.WordDueRow;
+import com.example.wordapp.repository.WordRepository;
+import com.example.wordapp.util.TimeUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 每个用户一个 Redis 有序集合：member 为单词 id，score 为下次复习时间（epoch 毫秒，从未复习为 0）。
+ * 复习、新增、删除时增量维护，"现在到期哪些 / 有多少 / 接下来 N 个" 都是 O(log n) 的范围查询，
+ * 不再依赖每次复习都会被清掉的 dueWords 缓存。
+ * <ul>
+ *     <li>集合不存在时按需从数据库重建：先写临时 key 再 RENAME，读者不会看到构建到一半的集合</li>
+ *     <li>每次增量写入都给该用户的版本号（{@code wordapp:due:用户名:ver}）加一；重建前记下版本号，
+ *     RENAME 时版本号已经变了说明重建期间有写入，读库结果可能缺了这次写入，丢弃重建结果重来</li>
+ *     <li>增量写入用 Lua 脚本"集合存在才写"，不会在集合过期的瞬间造出一个没有哨兵和过期时间的残缺集合</li>
+ *     <li>集合里固定有一个 score 为 +inf 的哨兵成员，用来区分"已构建但没有单词"和"未构建"</li>
+ *     <li>批量导入直接删除整个集合，下次读取时重建</li>
+ *     <li>Redis 不可用时退回数据库查询，增量更新失败则删除集合等待重建</li>
+ * </ul>
+ */
+@Service
+public class DueQueueService {
+    private static final Logger log = LoggerFactory.getLogger(DueQueueService.class);
+    private static final String KEY_PREFIX = "wordapp:due:";
+    private static final String SENTINEL = "-";
+    private static final String VERSION_SUFFIX = ":ver";
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+    private static final int REBUILD_ATTEMPTS = 3;
+    // KEYS[1] 集合 KEYS[2] 版本号；ARGV[1] 过期毫秒数，之后每两个为 score、member
+    private static final DefaultRedisScript<Long> SCHEDULE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('incr', KEYS[2]) redis.call('pexpire', KEYS[2], ARGV[1]) "
+                    + "if redis.call('exists', KEYS[1]) == 0 then return 0 end "
+                    + "for i = 2, #ARGV, 2 do redis.call('zadd', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+                    + "return 1",
+            Long.class);
+    // KEYS[1] 集合 KEYS[2] 版本号；ARGV[1] 过期毫秒数，ARGV[2] 要删除的 member，为空表示删除整个集合
+    private static final DefaultRedisScript<Long> REMOVE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('incr', KEYS[2]) redis.call('pexpire', KEYS[2], ARGV[1]) "
+                    + "if ARGV[2] == '' then return redis.call('del', KEYS[1]) end "
+                    + "return redis.call('zrem', KEYS[1], ARGV[2])",
+            Long.class);
+    // KEYS[1] 临时集合 KEYS[2] 集合 KEYS[3] 版本号；ARGV[1] 重建前读到的版本号，ARGV[2] 过期毫秒数
+    private static final DefaultRedisScript<Long> INSTALL_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('get', KEYS[3]) or '0' "
+                    + "if current ~= ARGV[1] then redis.call('del', KEYS[1]) return 0 end "
+                    + "redis.call('rename', KEYS[1], KEYS[2]) redis.call('pexpire', KEYS[2], ARGV[2]) "
+                    + "return 1",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final WordRepository wordRepository;
+    private final Duration ttl;
+
+    public DueQueueService(StringRedisTemplate redisTemplate,
+                           WordRepository wordRepository,
+                           @Value("${app.due-queue.ttl-hours:24}") long ttlHours) {
+        this.redisTemplate = redisTemplate;
+        this.wordRepository = wordRepository;
+        this.ttl = Duration.ofHours(Math.max(1, ttlHours));
+    }
+
+    /**
+     * @param limit 最多返回多少个，&lt;= 0 表示全部
+     * @return 到 now 为止已到期的单词 id，按下次复习时间从早到晚
+     */
+    public List<Long> dueIds(String username, LocalDateTime now, int limit) {
+        try {
+            String key = ensureBuilt(username);
+            if (key != null) {
+                Set<String> members = limit > 0
+                        ? redisTemplate.opsForZSet().rangeByScore(key, Double.NEGATIVE_INFINITY, score(now), 0, limit)
+                        : redisTemplate.opsForZSet().rangeByScore(key, Double.NEGATIVE_INFINITY, score(now));
+                return toIds(members);
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Due queue unavailable for {}, falling back to database: {}", username, ex.getMessage());
+        }
+        Pageable pageable = limit > 0 ? PageRequest.of(0, limit) : Pageable.unpaged();
+        return wordRepository.findDueIds(username, now, pageable);
+    }
+
+    public long countDue(String username, LocalDateTime now) {
+        try {
+            String key = ensureBuilt(username);
+            if (key != null) {
+                Long count = redisTemplate.opsForZSet().count(key, Double.NEGATIVE_INFINITY, score(now));
+                return count == null ? 0 : count;
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Due queue unavailable for {}, falling back to database: {}", username, ex.getMessage());
+        }
+        return wordRepository.countDueWords(username, now);
+    }
+
+    /**
+     * 单词新增或重新排期后调用。集合尚未构建时不做任何事，下次读取时会从数据库完整重建。
+     */
+    public void onScheduled(String username, Word word) {
+        onScheduled(username, List.of(word));
+    }
+
+    public void onScheduled(String username, Collection<Word> words) {
+        List<String> args = new ArrayList<>(words.size() * 2 + 1);
+        args.add(Long.toString(ttl.toMillis()));
+        for (Word word : words) {
+            args.add(Long.toString((long) score(word.getNextReviewAt())));
+            args.add(word.getId().toString());
+        }
+        try {
+            redisTemplate.execute(SCHEDULE_SCRIPT, List.of(key(username), versionKey(username)), args.toArray());
+        } catch (DataAccessException ex) {
+            invalidate(username);
+        }
+    }
+
+    public void onDeleted(String username, Long wordId) {
+        try {
+            redisTemplate.execute(REMOVE_SCRIPT, List.of(key(username), versionKey(username)),
+                    Long.toString(ttl.toMillis()), wordId.toString());
+        } catch (DataAccessException ex) {
+            invalidate(username);
+        }
+    }
+
+    public void invalidate(String username) {
+        try {
+            redisTemplate.execute(REMOVE_SCRIPT, List.of(key(username), versionKey(username)),
+                    Long.toString(ttl.toMillis()), "");
+        } catch (DataAccessException ex) {
+            // 删除失败只能等集合过期，过期时间即最长不一致窗口
+            log.warn("Failed to drop due queue for {}: {}", username, ex.getMessage());
+        }
+    }
+
+    /**
+     * @return 已构建好的集合 key；重建期间一直有并发写入、几次都没能装上时返回 null，由调用方直接查库
+     */
+    private String ensureBuilt(String username) {
+        String key = key(username);
+        for (int attempt = 0; attempt < REBUILD_ATTEMPTS; attempt++) {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
+                return key;
+            }
+            if (rebuild(username, key)) {
+                return key;
+            }
+        }
+        log.info("Due queue for {} kept changing during rebuild, reading database", username);
+        return null;
+    }
+
+    private boolean rebuild(String username, String key) {
+        String version = redisTemplate.opsForValue().get(versionKey(username));
+        String buildKey = key + ":build:" + UUID.randomUUID();
+        List<WordDueRow> rows = wordRepository.findDueRows(username);
+        ZSetOperations<String, String> zSet = redisTemplate.opsForZSet();
+        Set<ZSetOperations.TypedTuple<String>> chunk = new HashSet<>();
+        chunk.add(new DefaultTypedTuple<>(SENTINEL, Double.POSITIVE_INFINITY));
+        for (WordDueRow row : rows) {
+            chunk.add(new DefaultTypedTuple<>(row.getId().toString(), score(row.getNextReviewAt())));
+            if (chunk.size() >= REBUILD_CHUNK_SIZE) {
+                zSet.add(buildKey, chunk);
+                chunk = new HashSet<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            zSet.add(buildKey, chunk);
+        }
+        redisTemplate.expire(buildKey, ttl);
+        Long installed = redisTemplate.execute(INSTALL_SCRIPT, List.of(buildKey, key, versionKey(username)),
+                version == null ? "0" : version, Long.toString(ttl.toMillis()));
+        return installed != null && installed == 1;
+    }
+
+    private static List<Long> toIds(Set<String> members) {
+        if (members == null || members.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(members.size());
+        for (String member : members) {
+            if (!SENTINEL.equals(member)) {
+                ids.add(Long.valueOf(member));
+            }
+        }
+        return ids;
+    }
+
+    // 与数据库查询一致：nextReviewAt 为空视为立即到期，排在最前
+    private static double score(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(TimeUtil.CHINA_ZONE).toInstant().toEpochMilli();
+    }
+
+    private static String key(String username) {
+        return KEY_PREFIX + username;
+    }
+
+    private static String versionKey(String username) {
+        return KEY_PREFIX + username + VERSION_SUFFIX;
+    }
+}
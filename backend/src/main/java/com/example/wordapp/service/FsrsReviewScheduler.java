@@ -0,0 +1,72 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.entity.SchedulerType;
+import org.springframework.stereotype.Component;
+
+/**
+ * FSRS-4.5，使用官方默认参数，目标记忆保持率 90%。只有对/错两档：答对按 Good(3)、答错按 Again(1)。
+ * stability 为记忆稳定性（天），difficulty 为难度（1-10），repetitions 为复习次数。
+ */
+@Component
+public class FsrsReviewScheduler implements ReviewScheduler {
+    private static final double[] W = {
+            0.4872, 1.4003, 3.7145, 13.8206, 5.1618, 1.2298, 0.8975, 0.031, 1.6474,
+            0.1367, 1.0461, 2.1072, 0.0793, 0.3246, 1.587, 0.2272, 2.8755
+    };
+    private static final double DECAY = -0.5;
+    private static final double FACTOR = 19.0 / 81.0;
+    private static final double REQUEST_RETENTION = 0.9;
+    private static final double INTERVAL_MODIFIER = (Math.pow(REQUEST_RETENTION, 1 / DECAY) - 1) / FACTOR;
+    private static final int GRADE_AGAIN = 1;
+    private static final int GRADE_GOOD = 3;
+    private static final int MAX_INTERVAL_DAYS = 365;
+
+    @Override
+    public SchedulerType type() {
+        return SchedulerType.FSRS;
+    }
+
+    @Override
+    public void review(ReviewState state, boolean correct, double elapsedDays) {
+        state.updateMastery(correct, ReviewScheduler.wholeDays(elapsedDays));
+        int grade = correct ? GRADE_GOOD : GRADE_AGAIN;
+        if (state.stability <= 0 || state.difficulty <= 0) {
+            state.stability = W[grade - 1];
+            state.difficulty = clampDifficulty(initialDifficulty(grade));
+        } else {
+            double retrievability = Math.pow(1 + FACTOR * Math.max(0, elapsedDays) / state.stability, DECAY);
+            double difficulty = state.difficulty;
+            state.stability = correct
+                    ? recallStability(difficulty, state.stability, retrievability)
+                    : forgetStability(difficulty, state.stability, retrievability);
+            double next = difficulty - W[6] * (grade - 3);
+            state.difficulty = clampDifficulty(W[7] * initialDifficulty(GRADE_GOOD) + (1 - W[7]) * next);
+        }
+        state.repetitions++;
+        if (!correct) {
+            state.intervalMinutes = RELEARN_MINUTES;
+            return;
+        }
+        double days = Math.min(MAX_INTERVAL_DAYS, Math.max(1, Math.round(state.stability * INTERVAL_MODIFIER)));
+        state.intervalMinutes = (long) days * MINUTES_PER_DAY;
+    }
+
+    private static double initialDifficulty(int grade) {
+        return W[4] - (grade - 3) * W[5];
+    }
+
+    private static double recallStability(double difficulty, double stability, double retrievability) {
+        return stability * (1 + Math.exp(W[8]) * (11 - difficulty) * Math.pow(stability, -W[9])
+                * (Math.exp(W[10] * (1 - retrievability)) - 1));
+    }
+
+    private static double forgetStability(double difficulty, double stability, double retrievability) {
+        double next = W[11] * Math.pow(difficulty, -W[12]) * (Math.pow(stability + 1, W[13]) - 1)
+                * Math.exp(W[14] * (1 - retrievability));
+        return Math.min(next, stability);
+    }
+
+    private static double clampDifficulty(double difficulty) {
+        return Math.max(1, Math.min(10, difficulty));
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.dto.ImportJobResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 异步导入任务：上传文件先落到临时文件，请求立即返回 jobId，
+ * 解析和写库在 importExecutor 上执行，前端按 jobId 轮询进度。
+ * 每个用户同时进行的任务数按名额计：提交时原子地占一个名额，任务结束（或提交失败）时归还。
+ */
+@Service
+public class ImportJobService {
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+    private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(1);
+
+    private final WordService wordService;
+    private final ThreadPoolTaskExecutor importExecutor;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, Integer> activeJobs = new ConcurrentHashMap<>();
+
+    @Value("${app.import.max-jobs-per-user:2}")
+    private int maxJobsPerUser;
+
+    public ImportJobService(WordService wordService, @Qualifier("importExecutor") ThreadPoolTaskExecutor importExecutor) {
+        this.wordService = wordService;
+        this.importExecutor = importExecutor;
+    }
+
+    public ImportJobResponse submit(String username, MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "请上传有效的单词本文件");
+        }
+        String filename = file.getOriginalFilename();
+        String lower = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+        if (!lower.endsWith(".txt") && !lower.endsWith(".doc") && !lower.endsWith(".docx")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "仅支持 txt/doc/docx 格式");
+        }
+        purgeFinishedJobs();
+        if (!reserveSlot(username)) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "已有导入任务在进行中，请稍后再试");
+        }
+        boolean submitted = false;
+        try {
+            Path tempFile;
+            try {
+                tempFile = Files.createTempFile("word-import-", lower.substring(lower.lastIndexOf('.')));
+                file.transferTo(tempFile);
+            } catch (IOException ex) {
+                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "保存上传文件失败");
+            }
+
+            ImportJob job = new ImportJob(UUID.randomUUID().toString(), username, filename);
+            jobs.put(job.id, job);
+            try {
+                importExecutor.execute(() -> run(job, tempFile));
+            } catch (TaskRejectedException ex) {
+                jobs.remove(job.id);
+                deleteQuietly(tempFile);
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "导入任务过多，请稍后再试");
+            }
+            submitted = true;
+            return job.toResponse();
+        } finally {
+            if (!submitted) {
+                releaseSlot(username);
+            }
+        }
+    }
+
+    public ImportJobResponse getStatus(String username, String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null || !job.username.equals(username)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "未找到该导入任务");
+        }
+        return job.toResponse();
+    }
+
+    private void run(ImportJob job, Path tempFile) {
+        job.status = JobStatus.RUNNING;
+        try (InputStream input = Files.newInputStream(tempFile)) {
+            wordService.importWords(job.username, job.filename, input, job.progress);
+            job.status = JobStatus.SUCCEEDED;
+        } catch (ResponseStatusException ex) {
+            job.message = ex.getReason();
+            job.status = JobStatus.FAILED;
+        } catch (Exception ex) {
+            log.error("Import job {} failed", job.id, ex);
+            job.message = "导入失败";
+            job.status = JobStatus.FAILED;
+        } finally {
+            job.finishedAt = Instant.now();
+            deleteQuietly(tempFile);
+            releaseSlot(job.username);
+        }
+    }
+
+    // 检查和占用在同一次 compute 里完成，并发提交不会一起越过上限
+    private boolean reserveSlot(String username) {
+        int limit = Math.max(1, maxJobsPerUser);
+        AtomicBoolean reserved = new AtomicBoolean();
+        activeJobs.compute(username, (key, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= limit) {
+                return count;
+            }
+            reserved.set(true);
+            return current + 1;
+        });
+        return reserved.get();
+    }
+
+    private void releaseSlot(String username) {
+        activeJobs.computeIfPresent(username, (key, count) -> count <= 1 ? null : count - 1);
+    }
+
+    private void purgeFinishedJobs() {
+        Instant threshold = Instant.now().minus(FINISHED_JOB_RETENTION);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(threshold));
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // 临时目录由系统清理兜底
+        }
+    }
+
+    private enum JobStatus {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private static final class ImportJob {
+        private final String id;
+        private final String username;
+        private final String filename;
+        private final ImportProgress progress = new ImportProgress();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile String message;
+        private volatile Instant finishedAt;
+
+        private ImportJob(String id, String username, String filename) {
+            this.id = id;
+            this.username = username;
+            this.filename = filename;
+        }
+
+        private ImportJobResponse toResponse() {
+            return new ImportJobResponse(id, status.name(), progress.getLinesParsed(),
+                    progress.getImportedCount(), progress.getSkippedCount(), message);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.wordapp.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 导入进度计数，导入线程写、状态查询线程读。
+ */
+public class ImportProgress {
+    private final AtomicInteger linesParsed = new AtomicInteger();
+    private final AtomicInteger importedCount = new AtomicInteger();
+    private final AtomicInteger skippedCount = new AtomicInteger();
+
+    void lineParsed() {
+        linesParsed.incrementAndGet();
+    }
+
+    void imported(int count) {
+        importedCount.addAndGet(count);
+    }
+
+    void skipped() {
+        skippedCount.incrementAndGet();
+    }
+
+    public int getLinesParsed() {
+        return linesParsed.get();
+    }
+
+    public int getImportedCount() {
+        return importedCount.get();
+    }
+
+    public int getSkippedCount() {
+        return skippedCount.get();
+    }
+}
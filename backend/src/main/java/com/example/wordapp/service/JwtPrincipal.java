@@ -0,0 +1,57 @@
+package com.example.wordapp.service;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 从 JWT 声明还原出的登录身份，鉴权时不查库。只有身份信息，需要完整 User 时经 {@link CurrentUserResolver} 加载。
+ *
+ * @param id           用户 id，旧令牌里没有时为 null
+ * @param tokenVersion 签发时的令牌版本，与当前版本不一致说明已被吊销
+ */
+public record JwtPrincipal(Long id, String username, int tokenVersion, long expiresAtMillis) implements UserDetails {
+    private static final List<GrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= expiresAtMillis;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return AUTHORITIES;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -1,9 +1,15 @@
 package com.example.wordapp.service;
 
 import com.example.wordapp.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -11,64 +17,122 @@ import org.springframework.stereotype.Service;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.security.MessageDigest;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.HashMap;
+import java.util.Map;
 
+/**
+ * 签发和校验 JWT。令牌里带上用户 id、用户名和令牌版本，校验时只解析一次、不查库；
+ * 校验通过的令牌按原文缓存在一个有界的本地缓存里，同一令牌的后续请求不再重复验签。
+ * <p>
+ * 密钥和解析器在启动时构建一次。支持密钥轮换：新令牌用当前密钥签名并在头部写入 kid，
+ * 校验时按 kid 选择密钥，{@code app.jwt.previous-keys} 中的旧密钥只用于校验；没有 kid 的旧令牌按当前密钥校验。
+ */
 @Service
 public class JwtService {
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_TOKEN_VERSION = "ver";
 
-    @Value("${app.jwt.secret}")
-    private String secret;
+    private final String currentKid;
+    private final Key signingKey;
+    private final Map<String, Key> verificationKeys;
+    private final JwtParser parser;
+    private final long expirationMinutes;
+    private final Cache<String, JwtPrincipal> principals;
 
-    @Value("${app.jwt.expiration-minutes}")
-    private long expirationMinutes;
-
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    /**
+     * @param previousKeys 逗号分隔的 "kid:密钥"，轮换后保留到旧令牌全部过期为止
+     */
+    public JwtService(@Value("${app.jwt.secret}") String secret,
+                      @Value("${app.jwt.kid:k1}") String kid,
+                      @Value("${app.jwt.previous-keys:}") String previousKeys,
+                      @Value("${app.jwt.expiration-minutes}") long expirationMinutes,
+                      @Value("${app.jwt.principal-cache-size:10000}") long principalCacheSize) {
+        this.currentKid = kid;
+        this.signingKey = Keys.hmacShaKeyFor(normalizeSecret(secret));
+        Map<String, Key> keys = new HashMap<>();
+        for (String entry : previousKeys.split(",")) {
+            int idx = entry.indexOf(':');
+            if (idx > 0) {
+                keys.put(entry.substring(0, idx).trim(), Keys.hmacShaKeyFor(normalizeSecret(entry.substring(idx + 1).trim())));
+            }
+        }
+        keys.put(kid, signingKey);
+        this.verificationKeys = Map.copyOf(keys);
+        // JwtParser 不可变、线程安全，全局复用一个
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    // 0.11 的适配器方法签名就是原始类型 JwsHeader，只能照此覆盖
+                    @Override
+                    @SuppressWarnings("rawtypes")
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveKey(header.getKeyId());
+                    }
+                })
+                .build();
+        this.expirationMinutes = expirationMinutes;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, principalCacheSize))
+                .expireAfterWrite(Duration.ofMinutes(Math.max(1, expirationMinutes)))
+                .build();
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> resolver) {
-        Claims claims = Jwts
-                .parserBuilder()
-                .setSigningKey(getSignKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return resolver.apply(claims);
+    /**
+     * 验签并还原身份，签名无效或已过期时抛出 {@link JwtException}。不检查令牌版本，见 {@link TokenVersionService}。
+     */
+    public JwtPrincipal parse(String token) {
+        JwtPrincipal cached = principals.getIfPresent(token);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                return cached;
+            }
+            principals.invalidate(token);
+            throw new JwtException("token expired");
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Integer version = claims.get(CLAIM_TOKEN_VERSION, Integer.class);
+        JwtPrincipal principal = new JwtPrincipal(
+                claims.get(CLAIM_USER_ID, Long.class),
+                claims.getSubject(),
+                version == null ? 0 : version,
+                claims.getExpiration().getTime());
+        principals.put(token, principal);
+        return principal;
     }
 
     public String generateToken(User user) {
         Instant now = Instant.now();
         Instant expiry = now.plus(expirationMinutes, ChronoUnit.MINUTES);
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, currentKid)
                 .setSubject(user.getUsername())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_TOKEN_VERSION, user.getTokenVersion() == null ? 0 : user.getTokenVersion())
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(expiry))
-                .signWith(getSignKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean isTokenValid(String token, User user) {
-        String username = extractUsername(token);
-        return username.equals(user.getUsername()) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
-    }
-
-    private Key getSignKey() {
-        byte[] keyBytes = normalizeSecret(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private Key resolveKey(String kid) {
+        if (kid == null) {
+            return signingKey;
+        }
+        Key key = verificationKeys.get(kid);
+        if (key == null) {
+            throw new JwtException("unknown key id: " + kid);
+        }
+        return key;
     }
 
     /**
      * 这里按“普通字符串密钥”处理（不再尝试 Base64，避免因为 '-' 等字符导致解析异常）。
      * 如果长度不足 HS256 要求（>= 32 bytes），则用 SHA-256 派生 32 bytes。
      */
-    private byte[] normalizeSecret(String secret) {
+    private static byte[] normalizeSecret(String secret) {
         byte[] raw = secret.getBytes(StandardCharsets.UTF_8);
         if (raw.length >= 32) {
             return raw;
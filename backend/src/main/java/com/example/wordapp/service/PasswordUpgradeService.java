@@ -0,0 +1,42 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.entity.User;
+import com.example.wordapp.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 调高 {@code app.security.bcrypt.strength} 后，老用户下次登录成功时由 DaoAuthenticationProvider 调用，
+ * 把密码换成新强度的哈希。保存失败只记日志，不影响本次登录，下次登录会再试。
+ */
+@Service
+public class PasswordUpgradeService implements UserDetailsPasswordService {
+    private static final Logger log = LoggerFactory.getLogger(PasswordUpgradeService.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public PasswordUpgradeService(UserRepository userRepository, TransactionTemplate transactionTemplate) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> userRepository.updatePassword(user.getUsername(), newPassword));
+        } catch (DataAccessException ex) {
+            log.warn("Failed to upgrade password hash for {}: {}", user.getUsername(), ex.getMessage());
+            return user;
+        }
+        if (user instanceof User entity) {
+            entity.setPassword(newPassword);
+        }
+        return user;
+    }
+}
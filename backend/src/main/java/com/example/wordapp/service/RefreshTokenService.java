@@ -0,0 +1,163 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.entity.RefreshToken;
+import com.example.wordapp.entity.User;
+import com.example.wordapp.repository.RefreshTokenRepository;
+import com.example.wordapp.util.TimeUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * 刷新令牌的签发、轮换和吊销。访问令牌过期后用刷新令牌换新，不需要再校验密码（不做 BCrypt）。
+ * <p>
+ * 每次刷新都换发新的刷新令牌并作废旧的（有效期从刷新时重新计算，但不超过家族的绝对期限：登录后
+ * {@code family-max-days} 天必须重新登录，刷新不会顺延）。旧令牌在 {@code reuse-grace-seconds}
+ * 之后再次出现视为被盗用，同一家族（同一次登录换发出的所有令牌）全部吊销；宽限期内只拒绝本次请求，
+ * 避免多个标签页同时刷新时把用户踢下线。
+ */
+@Service
+public class RefreshTokenService {
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SecureRandom random = new SecureRandom();
+    private final long ttlDays;
+    private final long reuseGraceSeconds;
+    private final long familyMaxDays;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${app.jwt.refresh.ttl-days:30}") long ttlDays,
+                               @Value("${app.jwt.refresh.reuse-grace-seconds:10}") long reuseGraceSeconds,
+                               @Value("${app.jwt.refresh.family-max-days:90}") long familyMaxDays) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ttlDays = Math.max(1, ttlDays);
+        this.reuseGraceSeconds = Math.max(0, reuseGraceSeconds);
+        this.familyMaxDays = Math.max(1, familyMaxDays);
+    }
+
+    /**
+     * 登录或注册成功后签发，开启一个新的令牌家族。返回令牌原文，只在这里出现一次。
+     */
+    public String issue(User user) {
+        String raw = newRawToken();
+        LocalDateTime now = TimeUtil.nowDateTime();
+        transactionTemplate.executeWithoutResult(status -> refreshTokenRepository.save(newToken(
+                raw, UUID.randomUUID().toString(), user.getId(), user.getUsername(), now, now.plusDays(familyMaxDays))));
+        return raw;
+    }
+
+    /**
+     * 用刷新令牌换一个新的刷新令牌；令牌无效、过期、已吊销、已用过或家族到期时返回 401。
+     */
+    public Rotated rotate(String rawToken) {
+        String hash = hash(rawToken);
+        LocalDateTime now = TimeUtil.nowDateTime();
+        Rotated rotated = transactionTemplate.execute(status -> {
+            RefreshToken current = refreshTokenRepository.findByTokenHash(hash).orElse(null);
+            if (current == null || current.getRevokedAt() != null || !current.getExpiresAt().isAfter(now)) {
+                return null;
+            }
+            if (current.getUsedAt() != null) {
+                if (current.getUsedAt().plusSeconds(reuseGraceSeconds).isBefore(now)) {
+                    int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+                    log.warn("Refresh token reuse detected for {}, revoked {} tokens in family {}",
+                            current.getUsername(), revoked, current.getFamilyId());
+                }
+                return null;
+            }
+            LocalDateTime familyExpiresAt = familyExpiresAt(current);
+            if (!familyExpiresAt.isAfter(now)) {
+                return null;
+            }
+            if (refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+                // 并发刷新同一个令牌，另一个请求已经换发成功
+                return null;
+            }
+            String raw = newRawToken();
+            refreshTokenRepository.save(newToken(
+                    raw, current.getFamilyId(), current.getUserId(), current.getUsername(), now, familyExpiresAt));
+            return new Rotated(current.getUserId(), current.getUsername(), raw);
+        });
+        if (rotated == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "登录已过期，请重新登录");
+        }
+        return rotated;
+    }
+
+    /**
+     * 退出登录时吊销该用户的全部刷新令牌。
+     */
+    public void revokeAll(String username) {
+        transactionTemplate.executeWithoutResult(status ->
+                refreshTokenRepository.revokeByUsername(username, TimeUtil.nowDateTime()));
+    }
+
+    // 过期的令牌不可能再被使用，也就不再需要用于盗用检测
+    @Scheduled(cron = "${app.jwt.refresh.purge-cron:0 20 4 * * *}", zone = "Asia/Shanghai")
+    public void purgeExpired() {
+        LocalDateTime before = TimeUtil.nowDateTime();
+        Integer deleted = transactionTemplate.execute(status -> refreshTokenRepository.deleteExpiredBefore(before));
+        log.info("Purged {} expired refresh tokens", deleted);
+    }
+
+    private RefreshToken newToken(String raw, String familyId, Long userId, String username,
+                                  LocalDateTime now, LocalDateTime familyExpiresAt) {
+        LocalDateTime expiresAt = now.plusDays(ttlDays);
+        return RefreshToken.builder()
+                .tokenHash(hash(raw))
+                .familyId(familyId)
+                .userId(userId)
+                .username(username)
+                .expiresAt(expiresAt.isBefore(familyExpiresAt) ? expiresAt : familyExpiresAt)
+                .familyExpiresAt(familyExpiresAt)
+                .createdAt(now)
+                .build();
+    }
+
+    // 加这一列之前签发的令牌没有家族期限，从这个令牌签发时算起，之后换发的令牌都带上
+    private LocalDateTime familyExpiresAt(RefreshToken token) {
+        if (token.getFamilyExpiresAt() != null) {
+            return token.getFamilyExpiresAt();
+        }
+        LocalDateTime issuedAt = token.getCreatedAt() != null ? token.getCreatedAt() : token.getExpiresAt().minusDays(ttlDays);
+        return issuedAt.plusDays(familyMaxDays);
+    }
+
+    private String newRawToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // 令牌本身是高熵随机数，不需要加盐或慢哈希，SHA-256 即可按摘要走唯一索引查找
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    public record Rotated(Long userId, String username, String refreshToken) {
+    }
+}
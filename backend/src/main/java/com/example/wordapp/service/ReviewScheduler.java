@@ -0,0 +1,25 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.entity.SchedulerType;
+
+/**
+ * 复习调度策略。实现必须无状态、线程安全，且不分配对象：所有状态都在 {@link ReviewState} 上原地更新。
+ */
+public interface ReviewScheduler {
+    /** 答错后重新学习的间隔（6 小时），各算法一致 */
+    long RELEARN_MINUTES = 6 * 60;
+
+    long MINUTES_PER_DAY = 24 * 60;
+
+    SchedulerType type();
+
+    /**
+     * @param elapsedDays 距上次复习的天数（可带小数），从未复习过时传负数
+     */
+    void review(ReviewState state, boolean correct, double elapsedDays);
+
+    // 与原先 ChronoUnit.DAYS.between 一致：不足一天按 1 天，首次复习按 1 天
+    static int wholeDays(double elapsedDays) {
+        return elapsedDays < 0 ? 1 : (int) Math.max(1, Math.floor(elapsedDays));
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.entity.SchedulerType;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按用户选择的算法取调度器，未选择或未知时退回默认算法。
+ */
+@Component
+public class ReviewSchedulers {
+    private final Map<SchedulerType, ReviewScheduler> schedulers = new EnumMap<>(SchedulerType.class);
+
+    public ReviewSchedulers(List<ReviewScheduler> schedulers) {
+        for (ReviewScheduler scheduler : schedulers) {
+            this.schedulers.put(scheduler.type(), scheduler);
+        }
+    }
+
+    public ReviewScheduler get(SchedulerType type) {
+        ReviewScheduler scheduler = type == null ? null : schedulers.get(type);
+        return scheduler != null ? scheduler : schedulers.get(SchedulerType.DEFAULT);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.wordapp.service;
+
+/**
+ * 一个单词的调度状态，只包含基本类型字段，调度器原地修改，调用方可复用同一个实例。
+ * <ul>
+ *     <li>familiarity / memoryStrength：所有算法共用的熟悉度和记忆强度，统计和列表排序依赖它们</li>
+ *     <li>stability / difficulty / repetitions：SM-2、FSRS 各自的记忆模型参数，0 表示尚未初始化</li>
+ *     <li>intervalMinutes：调度结果，距下次复习的分钟数</li>
+ * </ul>
+ */
+public final class ReviewState {
+    public int familiarity;
+    public double memoryStrength = 0.2;
+    public double stability;
+    public double difficulty;
+    public int repetitions;
+    public long intervalMinutes;
+
+    public void reset(int familiarity, double memoryStrength, double stability, double difficulty, int repetitions) {
+        this.familiarity = familiarity;
+        this.memoryStrength = memoryStrength;
+        this.stability = stability;
+        this.difficulty = difficulty;
+        this.repetitions = repetitions;
+        this.intervalMinutes = 0;
+    }
+
+    /**
+     * 更新熟悉度和记忆强度（原有规则，与算法无关）。
+     *
+     * @param intervalDays 距上次复习的整天数，首次复习按 1 天
+     */
+    void updateMastery(boolean correct, int intervalDays) {
+        familiarity = Math.max(0, Math.min(5, correct ? familiarity + 1 : familiarity - 1));
+        if (correct) {
+            double gain = 0.08 + 0.04 * Math.log1p(intervalDays);
+            memoryStrength = Math.min(1.0, memoryStrength + gain);
+        } else {
+            memoryStrength = Math.max(0.0, memoryStrength - 0.2);
+        }
+    }
+}
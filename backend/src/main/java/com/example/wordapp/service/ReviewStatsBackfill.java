@@ -0,0 +1,139 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.repository.WordJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 一次性回填 words.last_reviewed_at / review_count / lapse_count。
+ * 按 id 区间分批更新，避免一条大 UPDATE 长时间锁表。
+ * <p>
+ * 启动完成后在后台线程执行，不阻塞启动。多个节点同时启动时用 Redis 锁（SET NX PX，每批续期）只让一个节点回填，
+ * 没拿到锁的节点直接跳过；Redis 不可用时各节点照常执行，每批只更新 review_count 为空的行，重复执行无害。
+ * 回填完成后在 Redis 记下完成标记，之后启动只查一次 Redis，不再对 words 做 min/max 查询；
+ * 中途失败或进程退出时已提交的批次保留，下次启动从剩下的行继续。
+ */
+@Component
+public class ReviewStatsBackfill implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(ReviewStatsBackfill.class);
+    private static final String LOCK_KEY = "wordapp:backfill:review-stats:lock";
+    private static final String DONE_KEY = "wordapp:backfill:review-stats:done";
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class);
+
+    private final WordJdbcRepository wordJdbcRepository;
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${app.backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.backfill.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${app.backfill.lock-ttl-seconds:60}")
+    private long lockTtlSeconds;
+
+    public ReviewStatsBackfill(WordJdbcRepository wordJdbcRepository, StringRedisTemplate redisTemplate) {
+        this.wordJdbcRepository = wordJdbcRepository;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        // 守护线程：关闭时不等回填结束，已提交的批次不受影响
+        Thread thread = new Thread(this::backfill, "review-stats-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void backfill() {
+        if (isDone()) {
+            return;
+        }
+        String token = UUID.randomUUID().toString();
+        if (!tryLock(token)) {
+            log.info("Review stats backfill is running on another node, skipped");
+            return;
+        }
+        try {
+            long[] range = wordJdbcRepository.findReviewStatsBackfillRange();
+            if (range != null) {
+                long startedAt = System.nanoTime();
+                long step = Math.max(1, chunkSize);
+                long updated = 0;
+                for (long from = range[0]; from <= range[1]; from += step) {
+                    updated += wordJdbcRepository.backfillReviewStats(from, Math.min(range[1], from + step - 1));
+                    renew(token);
+                }
+                log.info("Backfilled review stats for {} words in {} ms", updated, (System.nanoTime() - startedAt) / 1_000_000);
+            }
+            markDone();
+        } catch (RuntimeException ex) {
+            log.warn("Review stats backfill failed, will resume on next startup: {}", ex.getMessage());
+        } finally {
+            unlock(token);
+        }
+    }
+
+    private boolean isDone() {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(DONE_KEY));
+        } catch (RuntimeException ex) {
+            return false;
+        }
+    }
+
+    private void markDone() {
+        try {
+            redisTemplate.opsForValue().set(DONE_KEY, "1");
+        } catch (RuntimeException ex) {
+            log.debug("Failed to mark review stats backfill done: {}", ex.getMessage());
+        }
+    }
+
+    private boolean tryLock(String token) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, token, lockTtl()));
+        } catch (RuntimeException ex) {
+            // Redis 不可用时照常回填，重复执行无害
+            return true;
+        }
+    }
+
+    private void renew(String token) {
+        try {
+            redisTemplate.execute(RENEW_SCRIPT, List.of(LOCK_KEY), token, String.valueOf(lockTtl().toMillis()));
+        } catch (RuntimeException ex) {
+            log.debug("Failed to renew review stats backfill lock: {}", ex.getMessage());
+        }
+    }
+
+    private void unlock(String token) {
+        try {
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(LOCK_KEY), token);
+        } catch (RuntimeException ex) {
+            log.debug("Failed to release review stats backfill lock: {}", ex.getMessage());
+        }
+    }
+
+    private Duration lockTtl() {
+        return Duration.ofSeconds(Math.max(10, lockTtlSeconds));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.entity.SchedulerType;
+import org.springframework.stereotype.Component;
+
+/**
+ * SuperMemo-2。只有对/错两档，答对按质量 4、答错按质量 1 计算。
+ * difficulty 存放难度因子 EF（初始 2.5，下限 1.3），stability 存放当前间隔天数，repetitions 为连续答对次数。
+ */
+@Component
+public class Sm2ReviewScheduler implements ReviewScheduler {
+    private static final double INITIAL_EASE = 2.5;
+    private static final double MIN_EASE = 1.3;
+    private static final int MAX_INTERVAL_DAYS = 365;
+
+    @Override
+    public SchedulerType type() {
+        return SchedulerType.SM2;
+    }
+
+    @Override
+    public void review(ReviewState state, boolean correct, double elapsedDays) {
+        state.updateMastery(correct, ReviewScheduler.wholeDays(elapsedDays));
+        double ease = state.difficulty <= 0 ? INITIAL_EASE : state.difficulty;
+        int quality = correct ? 4 : 1;
+        ease += 0.1 - (5 - quality) * (0.08 + (5 - quality) * 0.02);
+        state.difficulty = Math.max(MIN_EASE, ease);
+        if (!correct) {
+            state.repetitions = 0;
+            state.stability = 1;
+            state.intervalMinutes = RELEARN_MINUTES;
+            return;
+        }
+        double interval;
+        if (state.repetitions == 0) {
+            interval = 1;
+        } else if (state.repetitions == 1) {
+            interval = 6;
+        } else {
+            interval = Math.max(1, state.stability) * state.difficulty;
+        }
+        interval = Math.min(MAX_INTERVAL_DAYS, Math.round(interval));
+        state.repetitions++;
+        state.stability = interval;
+        state.intervalMinutes = (long) interval * MINUTES_PER_DAY;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.entity.StudyActivityBucket;
+import com.example.wordapp.repository.StudyActivityBucketRepository;
+import com.example.wordapp.repository.StudyActivityJdbcRepository;
+import com.example.wordapp.util.TimeUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 按小时预聚合的学习时段统计（{@link StudyActivityBucket}）。
+ * 记录学习时段时累加对应的桶；读取近 N 天统计只扫描这段时间的桶。
+ * 窗口起点按小时取整，与逐条扫描 study_sessions 相比最多多算起点所在那一小时。
+ * 首次上线时桶表为空，启动时从 study_sessions 回填保留期内的数据；过期的桶每天清理。
+ * <p>
+ * 回填在所有单例创建完、Web 服务器开始接收请求之前执行：回填按 study_sessions 覆盖桶的值，
+ * 如果与 {@link #record} 并发，记录时累加的桶可能被回填用不含这条时段的结果覆盖掉。
+ * 只有桶表为空时才回填，平时启动只多一次 {@code limit 1} 查询。
+ */
+@Service
+public class StudyActivityService implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(StudyActivityService.class);
+
+    private final StudyActivityBucketRepository bucketRepository;
+    private final StudyActivityJdbcRepository activityJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.study-activity.retention-days:30}")
+    private int retentionDays;
+
+    public StudyActivityService(StudyActivityBucketRepository bucketRepository,
+                                StudyActivityJdbcRepository activityJdbcRepository,
+                                TransactionTemplate transactionTemplate) {
+        this.bucketRepository = bucketRepository;
+        this.activityJdbcRepository = activityJdbcRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public void record(Long userId, LocalDateTime startedAt, int durationSeconds) {
+        activityJdbcRepository.add(userId, startedAt, durationSeconds);
+    }
+
+    /**
+     * 汇总 since 所在小时及之后的学习时段。
+     */
+    public ActivitySummary summarize(Long userId, LocalDateTime since) {
+        LocalDateTime from = since.truncatedTo(ChronoUnit.HOURS);
+        LocalDate today = TimeUtil.nowDate();
+        int sessions = 0;
+        long totalSeconds = 0;
+        long todaySeconds = 0;
+        int[] sessionsByHour = new int[24];
+        for (StudyActivityBucket bucket : bucketRepository.findByUserIdAndBucketDateGreaterThanEqual(userId, from.toLocalDate())) {
+            LocalDateTime bucketStart = bucket.getBucketDate().atTime(bucket.getBucketHour(), 0);
+            if (bucketStart.isBefore(from)) {
+                continue;
+            }
+            sessions += bucket.getSessionCount();
+            totalSeconds += bucket.getTotalSeconds();
+            sessionsByHour[bucket.getBucketHour()] += bucket.getSessionCount();
+            if (bucket.getBucketDate().equals(today)) {
+                todaySeconds += bucket.getTotalSeconds();
+            }
+        }
+        return new ActivitySummary(sessions, totalSeconds, todaySeconds, sessionsByHour);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!activityJdbcRepository.isEmpty()) {
+            return;
+        }
+        LocalDateTime since = TimeUtil.startOfToday().minusDays(Math.max(1, retentionDays));
+        int rows = activityJdbcRepository.rebuildSince(since);
+        if (rows > 0) {
+            log.info("Backfilled {} study activity buckets since {}", rows, since);
+        }
+    }
+
+    @Scheduled(cron = "${app.study-activity.purge-cron:0 10 4 * * *}", zone = "Asia/Shanghai")
+    public void purgeExpired() {
+        LocalDate before = TimeUtil.nowDate().minusDays(Math.max(8, retentionDays));
+        Integer deleted = transactionTemplate.execute(status -> bucketRepository.deleteOlderThan(before));
+        log.info("Purged {} study activity buckets before {}", deleted, before);
+    }
+
+    /**
+     * @param sessionsByHour 下标为开始学习的小时（0-23）
+     */
+    public record ActivitySummary(int sessions, long totalSeconds, long todaySeconds, int[] sessionsByHour) {
+    }
+}
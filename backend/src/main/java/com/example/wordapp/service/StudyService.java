@@ -1,13 +1,17 @@
 package com.example.wordapp.service;
 
+import com.example.wordapp.dto.SchedulerSetting;
 import com.example.wordapp.dto.StudyOverviewResponse;
 import com.example.wordapp.dto.StudyBehaviorResponse;
 import com.example.wordapp.dto.StudyStatsResponse;
 import com.example.wordapp.dto.StudySessionRequest;
 import com.example.wordapp.dto.TodayStudyResponse;
+import com.example.wordapp.entity.SchedulerType;
 import com.example.wordapp.entity.StudyRecord;
 import com.example.wordapp.entity.StudySession;
 import com.example.wordapp.entity.User;
+import com.example.wordapp.entity.UserStudyStats;
+import com.example.wordapp.entity.Word;
 import com.example.wordapp.repository.ReviewRecordRepository;
 import com.example.wordapp.repository.StudyRecordRepository;
 import com.example.wordapp.repository.StudySessionRepository;
@@ -15,17 +19,22 @@ import com.example.wordapp.repository.UserRepository;
 import com.example.wordapp.repository.WordRepository;
 import com.example.wordapp.util.TimeUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.http.HttpStatus;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.LinkedHashSet;
 
@@ -37,78 +46,109 @@ public class StudyService {
     private final ReviewRecordRepository reviewRecordRepository;
     private final WordRepository wordRepository;
     private final StudySessionRepository studySessionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DueQueueService dueQueue;
+    private final StudyStatsService studyStatsService;
+    private final StudyActivityService studyActivityService;
+    private final CurrentUserResolver currentUserResolver;
+
+    // 经由代理调用自身的 @Cacheable 方法，内部调用也走缓存
+    @Lazy
+    @Autowired
+    private StudyService self;
+
+    public SchedulerSetting getScheduler(String username) {
+        SchedulerType scheduler = findUser(username).getScheduler();
+        return new SchedulerSetting(scheduler == null ? SchedulerType.DEFAULT : scheduler);
+    }
+
+    /**
+     * 切换复习调度算法。各算法的记忆模型参数含义不同，切换后清空，由新算法从下一次复习开始重新建模；
+     * 已排好的下次复习时间保持不变。
+     */
+    @CacheEvict(cacheNames = {"wordListV2", "wordPageV1", "incorrectWordsV2"}, key = "#username")
+    public SchedulerSetting updateScheduler(String username, SchedulerType scheduler) {
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = findUser(username);
+            SchedulerType current = user.getScheduler() == null ? SchedulerType.DEFAULT : user.getScheduler();
+            if (current != scheduler) {
+                user.setScheduler(scheduler);
+                userRepository.save(user);
+                wordRepository.resetSchedulerState(user.getId());
+            }
+        });
+        return new SchedulerSetting(scheduler);
+    }
 
-    @Cacheable(cacheNames = "studyStatsV2", key = "#username")
+    @Cacheable(cacheNames = "studyStatsV2", sync = true, key = "T(com.example.wordapp.service.WordCacheUpdater).dailyKey(#username)")
     public StudyStatsResponse getStats(String username) {
         User user = findUser(username);
-        List<StudyRecord> records = studyRecordRepository.findByUserOrderByStudyDateDesc(user);
-        long totalDays = records.size();
-        long streakDays = calculateStreak(records);
-        LocalDate lastStudyDate = records.isEmpty() ? null : records.get(0).getStudyDate();
-        long todayCount = countTodayReviews(user);
-        return new StudyStatsResponse(totalDays, streakDays, lastStudyDate, todayCount);
+        return toStats(studyStatsService.get(user.getId()), countTodayReviews(user));
     }
 
-    @Cacheable(cacheNames = "studyOverviewV1", key = "#username")
+    @Cacheable(cacheNames = "studyOverviewV1", sync = true, key = "T(com.example.wordapp.service.WordCacheUpdater).dailyKey(#username)")
     public StudyOverviewResponse getOverview(String username) {
-        StudyStatsResponse stats = getStats(username);
+        StudyStatsResponse stats = self.getStats(username);
         long wordCount = wordRepository.countByOwnerUsername(username);
-        long dueCount = wordRepository.countDueWords(username, TimeUtil.nowDateTime());
+        long dueCount = dueQueue.countDue(username, TimeUtil.nowDateTime());
         return new StudyOverviewResponse(stats, wordCount, dueCount);
     }
 
     public TodayStudyResponse getTodayStudy(String username, int dailyTarget, int newWordRatio, LocalDateTime importAfter) {
         User user = findUser(username);
-        int adjustedTarget = adjustDailyTarget(user, dailyTarget);
-        long todayCount = countTodayReviews(user);
+        int adjustedTarget = adjustDailyTarget(dailyTarget, recentActivity(user));
+        return selectTodayWords(user, adjustedTarget, newWordRatio, importAfter, countTodayReviews(user));
+    }
+
+    /**
+     * 按调整后的每日目标选出今天要学的单词（仪表盘接口复用，调用方负责提供已算好的今日复习数）。
+     */
+    TodayStudyResponse selectTodayWords(User user, int adjustedTarget, int newWordRatio, LocalDateTime importAfter, long todayCount) {
         int remaining = Math.max(0, adjustedTarget - (int) todayCount);
         if (remaining == 0) {
             return new TodayStudyResponse(List.of(), todayCount);
         }
 
-        LocalDateTime now = TimeUtil.nowDateTime();
-        List<com.example.wordapp.entity.Word> due = wordRepository.findDueWords(username, now);
-        List<com.example.wordapp.entity.Word> allWords = wordRepository.findByOwnerUsernameOrderByUpdatedAtDesc(username);
-        List<com.example.wordapp.entity.Word> newWords = allWords.stream()
-                .filter(word -> word.getFamiliarity() == null || word.getFamiliarity() <= 0)
-                .toList();
-
-        if (importAfter != null) {
-            due = due.stream().filter(word -> word.getCreatedAt() != null && !word.getCreatedAt().isBefore(importAfter)).toList();
-            newWords = newWords.stream().filter(word -> word.getCreatedAt() != null && !word.getCreatedAt().isBefore(importAfter)).toList();
-            allWords = allWords.stream().filter(word -> word.getCreatedAt() != null && !word.getCreatedAt().isBefore(importAfter)).toList();
-        }
-
         int targetNew = Math.round(remaining * (newWordRatio / 100f));
         int targetReview = remaining - targetNew;
 
-        Set<com.example.wordapp.entity.Word> selected = new LinkedHashSet<>();
-        due = due.stream()
-                .sorted((a, b) -> Double.compare(
-                        a.getMemoryStrength() == null ? 0.2 : a.getMemoryStrength(),
-                        b.getMemoryStrength() == null ? 0.2 : b.getMemoryStrength()))
-                .toList();
-        for (int i = 0; i < due.size() && selected.size() < targetReview; i++) {
-            selected.add(due.get(i));
+        // 依次取：最薄弱的到期词 -> 最薄弱的新词 -> 最近更新的词补足，每步只取还缺的条数
+        Set<Long> selected = new LinkedHashSet<>();
+        if (targetReview > 0) {
+            selected.addAll(wordRepository.findDueIdsForStudy(user.getId(), TimeUtil.nowDateTime(), importAfter,
+                    PageRequest.of(0, targetReview)));
+        }
+        int missing = targetReview + targetNew - selected.size();
+        if (missing > 0) {
+            selected.addAll(wordRepository.findNewIdsForStudy(user.getId(), importAfter, excludeIds(selected),
+                    PageRequest.of(0, missing)));
         }
-        newWords = newWords.stream()
-                .sorted((a, b) -> Double.compare(
-                        a.getMemoryStrength() == null ? 0.2 : a.getMemoryStrength(),
-                        b.getMemoryStrength() == null ? 0.2 : b.getMemoryStrength()))
-                .toList();
-        for (int i = 0; i < newWords.size() && selected.size() < targetReview + targetNew; i++) {
-            selected.add(newWords.get(i));
+        missing = remaining - selected.size();
+        if (missing > 0) {
+            selected.addAll(wordRepository.findRecentIdsForStudy(user.getId(), importAfter, excludeIds(selected),
+                    PageRequest.of(0, missing)));
         }
-        if (selected.size() < remaining) {
-            for (int i = 0; i < allWords.size() && selected.size() < remaining; i++) {
-                selected.add(allWords.get(i));
+
+        Map<Long, Word> words = new HashMap<>();
+        for (Word word : wordRepository.findAllById(selected)) {
+            words.put(word.getId(), word);
+        }
+        List<Word> result = new ArrayList<>(selected.size());
+        for (Long id : selected) {
+            Word word = words.get(id);
+            if (word != null) {
+                result.add(word);
             }
         }
+        return new TodayStudyResponse(result, todayCount);
+    }
 
-        return new TodayStudyResponse(new ArrayList<>(selected), todayCount);
+    // not in () 在部分数据库上是语法错误，空集合时放一个不存在的 id
+    private static Collection<Long> excludeIds(Set<Long> selected) {
+        return selected.isEmpty() ? List.of(-1L) : selected;
     }
 
-    @CacheEvict(cacheNames = {"studyStatsV2", "studyOverviewV1"}, key = "#username")
+    @CacheEvict(cacheNames = {"studyStatsV2", "studyOverviewV1"}, key = "T(com.example.wordapp.service.WordCacheUpdater).dailyKey(#username)")
     public StudyStatsResponse recordStudy(String username) {
         User user = findUser(username);
         LocalDate today = TimeUtil.nowDate();
@@ -123,6 +163,7 @@ public class StudyService {
                 // ignore duplicate record race condition
             }
         }
+        studyStatsService.recordStudyDay(user.getId(), today);
         return getStats(username);
     }
 
@@ -133,76 +174,62 @@ public class StudyService {
                 .startedAt(LocalDateTime.ofInstant(request.startedAt(), TimeUtil.CHINA_ZONE))
                 .durationSeconds(request.durationSeconds())
                 .build();
-        studySessionRepository.save(session);
+        transactionTemplate.executeWithoutResult(status -> {
+            studySessionRepository.save(session);
+            studyActivityService.record(user.getId(), session.getStartedAt(), session.getDurationSeconds());
+        });
     }
 
     public StudyBehaviorResponse getBehavior(String username) {
         User user = findUser(username);
-        LocalDateTime since = TimeUtil.nowDateTime().minusDays(7);
-        LocalDateTime todayStart = TimeUtil.startOfToday();
-        LocalDateTime todayEnd = TimeUtil.startOfTomorrow();
-        List<StudySession> sessions = studySessionRepository.findByUserAndStartedAtAfterOrderByStartedAtDesc(user, since);
-        if (sessions.isEmpty()) {
+        StudyActivityService.ActivitySummary activity = recentActivity(user);
+        if (activity.sessions() == 0) {
+            return toBehavior(activity, 0);
+        }
+        return toBehavior(activity, studyStatsService.get(user.getId()).getCurrentStreak());
+    }
+
+    StudyActivityService.ActivitySummary recentActivity(User user) {
+        return studyActivityService.summarize(user.getId(), TimeUtil.nowDateTime().minusDays(7));
+    }
+
+    static StudyStatsResponse toStats(UserStudyStats stats, long todayCount) {
+        return new StudyStatsResponse(stats.getTotalDays(), stats.getCurrentStreak(), stats.getLastStudyDate(), todayCount);
+    }
+
+    static StudyBehaviorResponse toBehavior(StudyActivityService.ActivitySummary activity, long streakDays) {
+        if (activity.sessions() == 0) {
             return new StudyBehaviorResponse(0, -1, 0, 0, 0, 0);
         }
-        int totalSeconds = sessions.stream().mapToInt(StudySession::getDurationSeconds).sum();
-        int avgMinutes = Math.max(1, Math.round(totalSeconds / 60f / sessions.size()));
-        int todaySeconds = sessions.stream()
-                .filter(s -> !s.getStartedAt().isBefore(todayStart) && s.getStartedAt().isBefore(todayEnd))
-                .mapToInt(StudySession::getDurationSeconds)
-                .sum();
-        int todayMinutes = Math.round(todaySeconds / 60f);
-        int[] hourBuckets = new int[24];
-        sessions.forEach(s -> hourBuckets[s.getStartedAt().getHour()]++);
+        int avgMinutes = Math.max(1, Math.round(activity.totalSeconds() / 60f / activity.sessions()));
+        int todayMinutes = Math.round(activity.todaySeconds() / 60f);
+        int[] hourBuckets = activity.sessionsByHour();
         int preferredHour = 0;
         for (int i = 1; i < hourBuckets.length; i++) {
             if (hourBuckets[i] > hourBuckets[preferredHour]) {
                 preferredHour = i;
             }
         }
-        long streakDays = calculateStreak(studyRecordRepository.findByUserOrderByStudyDateDesc(user));
         int focusScore = Math.min(100, avgMinutes * 5);
-        int consistencyScore = (int) Math.min(100, streakDays * 10 + sessions.size() * 3);
-        return new StudyBehaviorResponse(avgMinutes, preferredHour, focusScore, consistencyScore, sessions.size(), todayMinutes);
-    }
-
-    private User findUser(String username) {
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "用户不存在"));
+        int consistencyScore = (int) Math.min(100, streakDays * 10 + activity.sessions() * 3);
+        return new StudyBehaviorResponse(avgMinutes, preferredHour, focusScore, consistencyScore, activity.sessions(), todayMinutes);
     }
 
-    private long calculateStreak(List<StudyRecord> records) {
-        if (records.isEmpty()) {
-            return 0;
-        }
-        long streak = 1;
-        LocalDate prev = records.get(0).getStudyDate();
-        for (int i = 1; i < records.size(); i++) {
-            LocalDate current = records.get(i).getStudyDate();
-            if (prev.minusDays(1).equals(current)) {
-                streak++;
-                prev = current;
-            } else {
-                break;
-            }
-        }
-        return streak;
+    User findUser(String username) {
+        return currentUserResolver.resolve(username);
     }
 
-    private long countTodayReviews(User user) {
+    long countTodayReviews(User user) {
         LocalDateTime start = TimeUtil.startOfToday();
         LocalDateTime end = TimeUtil.startOfTomorrow();
         return reviewRecordRepository.countByUserAndReviewedAtBetween(user, start, end);
     }
 
-    private int adjustDailyTarget(User user, int dailyTarget) {
-        LocalDateTime since = TimeUtil.nowDateTime().minusDays(7);
-        List<StudySession> sessions = studySessionRepository.findByUserAndStartedAtAfterOrderByStartedAtDesc(user, since);
-        if (sessions.isEmpty()) {
+    static int adjustDailyTarget(int dailyTarget, StudyActivityService.ActivitySummary activity) {
+        if (activity.sessions() == 0) {
             return dailyTarget;
         }
-        int totalSeconds = sessions.stream().mapToInt(StudySession::getDurationSeconds).sum();
-        int avgMinutes = Math.max(1, Math.round(totalSeconds / 60f / sessions.size()));
+        int avgMinutes = Math.max(1, Math.round(activity.totalSeconds() / 60f / activity.sessions()));
         if (avgMinutes < 5) {
             return Math.max(5, Math.round(dailyTarget * 0.8f));
         }
@@ -0,0 +1,130 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.entity.UserStudyStats;
+import com.example.wordapp.repository.StudyRecordRepository;
+import com.example.wordapp.repository.UserRepository;
+import com.example.wordapp.repository.UserStudyStatsRepository;
+import com.example.wordapp.util.TimeUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 维护 {@link UserStudyStats}：打卡时一条条件 UPDATE 原地累加；
+ * 汇总行缺失时从 study_records 重建，定时对账任务按同样的逻辑修正全部用户。
+ */
+@Service
+public class StudyStatsService {
+    private static final Logger log = LoggerFactory.getLogger(StudyStatsService.class);
+    private static final int RECONCILE_PAGE_SIZE = 500;
+
+    private final UserStudyStatsRepository statsRepository;
+    private final StudyRecordRepository studyRecordRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.study-stats.reconcile-enabled:true}")
+    private boolean reconcileEnabled;
+
+    public StudyStatsService(UserStudyStatsRepository statsRepository,
+                             StudyRecordRepository studyRecordRepository,
+                             UserRepository userRepository,
+                             TransactionTemplate transactionTemplate) {
+        this.statsRepository = statsRepository;
+        this.studyRecordRepository = studyRecordRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public UserStudyStats get(Long userId) {
+        return statsRepository.findById(userId).orElseGet(() -> rebuild(userId));
+    }
+
+    /**
+     * 当天的 study_record 写入后调用；同一天重复调用不会重复计数。
+     */
+    public void recordStudyDay(Long userId, LocalDate today) {
+        Integer updated = transactionTemplate.execute(status -> statsRepository.recordStudyDay(
+                userId, today, today.minusDays(1), TimeUtil.nowDateTime()));
+        if (updated != null && updated == 0 && !statsRepository.existsById(userId)) {
+            rebuild(userId);
+        }
+    }
+
+    /**
+     * 从 study_records 重新计算一个用户的汇总。与并发打卡冲突时保留打卡结果，留给下一次对账。
+     */
+    public UserStudyStats rebuild(Long userId) {
+        List<LocalDate> dates = studyRecordRepository.findStudyDatesDesc(userId);
+        int totalDays = dates.size();
+        int streak = currentStreak(dates);
+        LocalDate lastStudyDate = dates.isEmpty() ? null : dates.get(0);
+
+        UserStudyStats existing = statsRepository.findById(userId).orElse(null);
+        if (existing == null) {
+            UserStudyStats stats = UserStudyStats.builder()
+                    .userId(userId)
+                    .totalDays(totalDays)
+                    .currentStreak(streak)
+                    .lastStudyDate(lastStudyDate)
+                    .updatedAt(TimeUtil.nowDateTime())
+                    .build();
+            try {
+                return statsRepository.saveAndFlush(stats);
+            } catch (DataIntegrityViolationException ex) {
+                // 并发请求已经建好了汇总行
+                return statsRepository.findById(userId).orElse(stats);
+            }
+        }
+        if (existing.getTotalDays() != totalDays || existing.getCurrentStreak() != streak
+                || !Objects.equals(existing.getLastStudyDate(), lastStudyDate)) {
+            transactionTemplate.executeWithoutResult(status -> statsRepository.overwrite(
+                    userId, totalDays, streak, lastStudyDate, existing.getLastStudyDate(), TimeUtil.nowDateTime()));
+            existing.setTotalDays(totalDays);
+            existing.setCurrentStreak(streak);
+            existing.setLastStudyDate(lastStudyDate);
+        }
+        return existing;
+    }
+
+    // dates 按日期倒序：从最近一天开始数连续的天数
+    private static int currentStreak(List<LocalDate> dates) {
+        int streak = dates.isEmpty() ? 0 : 1;
+        for (int i = 1; i < dates.size() && dates.get(i - 1).minusDays(1).equals(dates.get(i)); i++) {
+            streak++;
+        }
+        return streak;
+    }
+
+    @Scheduled(cron = "${app.study-stats.reconcile-cron:0 30 3 * * *}", zone = "Asia/Shanghai")
+    public void reconcileAll() {
+        if (!reconcileEnabled) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        int users = 0;
+        long afterId = 0;
+        List<Long> ids;
+        while (!(ids = userRepository.findIdsAfter(afterId, PageRequest.of(0, RECONCILE_PAGE_SIZE))).isEmpty()) {
+            for (Long userId : ids) {
+                try {
+                    rebuild(userId);
+                } catch (RuntimeException ex) {
+                    log.warn("Failed to reconcile study stats for user {}", userId, ex);
+                }
+            }
+            users += ids.size();
+            afterId = ids.get(ids.size() - 1);
+        }
+        log.info("Reconciled study stats for {} users in {} ms", users, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 令牌版本：JWT 里记录签发时的版本，鉴权时与当前版本比较，不一致即视为已吊销。
+ * <p>
+ * 当前版本依次从本地缓存、Redis（{@code wordapp:token-ver:用户名}）、数据库读取，正常情况下鉴权不查库。
+ * 吊销时数据库版本加一并写入 Redis，本节点立即生效，其它节点最迟在本地缓存过期（{@code local-ttl-seconds}）后生效。
+ * 从数据库回填 Redis 只在 key 不存在时写（SET NX），吊销写入只会把版本往大里改，
+ * 回填读到的旧版本不会盖掉并发吊销刚写入的新版本。
+ * 用户不存在时版本记为 -1，任何令牌都不通过。
+ */
+@Service
+public class TokenVersionService {
+    private static final Logger log = LoggerFactory.getLogger(TokenVersionService.class);
+    private static final String KEY_PREFIX = "wordapp:token-ver:";
+    private static final int MISSING_USER = -1;
+    // KEYS[1] 版本 key；ARGV[1] 新版本，ARGV[2] 过期毫秒数。只在新版本更大（或 key 不存在）时写入
+    private static final DefaultRedisScript<Long> RAISE_SCRIPT = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('get', KEYS[1])) "
+                    + "if current ~= nil and current >= tonumber(ARGV[1]) then return 0 end "
+                    + "redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2]) return 1",
+            Long.class);
+
+    private final UserRepository userRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration redisTtl;
+    private final Cache<String, Integer> versions;
+
+    public TokenVersionService(UserRepository userRepository,
+                               StringRedisTemplate redisTemplate,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${app.jwt.version-cache.local-ttl-seconds:30}") long localTtlSeconds,
+                               @Value("${app.jwt.version-cache.max-size:10000}") long maxSize,
+                               @Value("${app.jwt.version-cache.redis-ttl-hours:24}") long redisTtlHours) {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.redisTtl = Duration.ofHours(Math.max(1, redisTtlHours));
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maxSize))
+                .expireAfterWrite(Duration.ofSeconds(Math.max(1, localTtlSeconds)))
+                .build();
+    }
+
+    public boolean isCurrent(JwtPrincipal principal) {
+        return principal.tokenVersion() == currentVersion(principal.username());
+    }
+
+    public int currentVersion(String username) {
+        return versions.get(username, this::loadVersion);
+    }
+
+    /**
+     * 吊销该用户已签发的全部令牌。
+     */
+    public void revokeAll(String username) {
+        Integer version = transactionTemplate.execute(status -> {
+            userRepository.incrementTokenVersion(username);
+            return userRepository.findTokenVersion(username).orElse(MISSING_USER);
+        });
+        int current = version == null ? MISSING_USER : version;
+        writeRedis(username, current);
+        versions.put(username, current);
+    }
+
+    private int loadVersion(String username) {
+        String key = KEY_PREFIX + username;
+        try {
+            String cached = redisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                return Integer.parseInt(cached);
+            }
+        } catch (DataAccessException | NumberFormatException ex) {
+            log.warn("Token version unavailable in Redis for {}, reading database: {}", username, ex.getMessage());
+        }
+        Optional<Integer> version = userRepository.findTokenVersion(username);
+        int current = version.orElse(MISSING_USER);
+        if (version.isPresent()) {
+            fillRedis(username, current);
+        }
+        return current;
+    }
+
+    // 读库和写 Redis 之间可能插进一次吊销，只在 key 不存在时回填
+    private void fillRedis(String username, int version) {
+        try {
+            redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + username, Integer.toString(version), redisTtl);
+        } catch (DataAccessException ex) {
+            log.warn("Failed to cache token version for {}: {}", username, ex.getMessage());
+        }
+    }
+
+    private void writeRedis(String username, int version) {
+        try {
+            redisTemplate.execute(RAISE_SCRIPT, List.of(KEY_PREFIX + username),
+                    Integer.toString(version), Long.toString(redisTtl.toMillis()));
+        } catch (DataAccessException ex) {
+            // 写失败时删掉旧值，避免其它节点继续读到吊销前的版本
+            log.warn("Failed to store token version for {}: {}", username, ex.getMessage());
+            try {
+                redisTemplate.delete(KEY_PREFIX + username);
+            } catch (DataAccessException ignored) {
+                // Redis 不可用，其它节点会回退到数据库
+            }
+        }
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.web.server.ResponseStatusException;
 public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CurrentUserResolver currentUserResolver;
 
     public User register(RegisterRequest request) {
         if (userRepository.existsByUsername(request.username())) {
@@ -28,7 +29,6 @@ public class UserService {
     }
 
     public User findByUsername(String username) {
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "用户不存在"));
+        return currentUserResolver.resolve(username);
     }
 }
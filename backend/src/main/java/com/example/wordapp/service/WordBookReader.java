@@ -0,0 +1,151 @@
+package com.example.wordapp.service;
+
+import org.apache.poi.hwpf.HWPFDocument;
+import org.apache.poi.hwpf.usermodel.Paragraph;
+import org.apache.poi.hwpf.usermodel.Range;
+import org.apache.poi.hwpf.usermodel.Table;
+import org.apache.poi.hwpf.usermodel.TableRow;
+import org.apache.poi.xwpf.usermodel.IBodyElement;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.apache.poi.xwpf.usermodel.XWPFTableCell;
+import org.apache.poi.xwpf.usermodel.XWPFTableRow;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * 按行读取单词本（txt/doc/docx），逐行回调给调用方，不再把整本内容拼成一个大字符串。
+ * 换行规则与原先的 {@code split("\\r?\\n")} 保持一致：只按 \n 断行，并去掉行尾的 \r。
+ */
+final class WordBookReader {
+    private static final int BUFFER_SIZE = 8192;
+
+    private WordBookReader() {
+    }
+
+    static void forEachLine(String filename, InputStream input, Consumer<String> consumer) throws IOException {
+        String lower = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".txt")) {
+            readText(new InputStreamReader(input, StandardCharsets.UTF_8), consumer);
+            return;
+        }
+        if (lower.endsWith(".docx")) {
+            readDocx(input, consumer);
+            return;
+        }
+        if (lower.endsWith(".doc")) {
+            readDoc(input, consumer);
+            return;
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "仅支持 txt/doc/docx 格式");
+    }
+
+    private static void readText(Reader reader, Consumer<String> consumer) throws IOException {
+        StringBuilder line = new StringBuilder();
+        char[] buffer = new char[BUFFER_SIZE];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                char c = buffer[i];
+                if (c == '\n') {
+                    emitLine(line, consumer);
+                } else {
+                    line.append(c);
+                }
+            }
+        }
+        if (line.length() > 0) {
+            emitLine(line, consumer);
+        }
+    }
+
+    // docx：逐个段落/表格行输出，表格单元格之间用 TAB 分隔（与 XWPFWordExtractor 的输出一致）
+    private static void readDocx(InputStream input, Consumer<String> consumer) throws IOException {
+        try (XWPFDocument document = new XWPFDocument(input)) {
+            for (IBodyElement element : document.getBodyElements()) {
+                if (element instanceof XWPFParagraph paragraph) {
+                    emitText(paragraph.getText(), consumer);
+                } else if (element instanceof XWPFTable table) {
+                    for (XWPFTableRow row : table.getRows()) {
+                        StringBuilder rowText = new StringBuilder();
+                        for (XWPFTableCell cell : row.getTableCells()) {
+                            if (rowText.length() > 0) {
+                                rowText.append('\t');
+                            }
+                            rowText.append(cell.getTextRecursively());
+                        }
+                        emitText(rowText.toString(), consumer);
+                    }
+                }
+            }
+        }
+    }
+
+    // doc：逐段读取；表格按行拼接单元格，\u0007 为单元格结束符，\u000B 为软换行
+    private static void readDoc(InputStream input, Consumer<String> consumer) throws IOException {
+        try (HWPFDocument document = new HWPFDocument(input)) {
+            Range range = document.getRange();
+            int count = range.numParagraphs();
+            for (int i = 0; i < count; i++) {
+                Paragraph paragraph = range.getParagraph(i);
+                if (paragraph.isInTable()) {
+                    Table table = range.getTable(paragraph);
+                    for (int r = 0; r < table.numRows(); r++) {
+                        TableRow row = table.getRow(r);
+                        StringBuilder rowText = new StringBuilder();
+                        for (int c = 0; c < row.numCells(); c++) {
+                            if (c > 0) {
+                                rowText.append('\t');
+                            }
+                            rowText.append(Range.stripFields(row.getCell(c).text()).trim());
+                        }
+                        emitText(rowText.toString(), consumer);
+                    }
+                    i += Math.max(1, table.numParagraphs()) - 1;
+                    continue;
+                }
+                emitText(Range.stripFields(paragraph.text()).replace('\u000B', '\n'), consumer);
+            }
+        }
+    }
+
+    private static void emitText(String text, Consumer<String> consumer) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        int start = 0;
+        int newline;
+        while ((newline = text.indexOf('\n', start)) != -1) {
+            consumer.accept(stripCarriageReturn(text, start, newline));
+            start = newline + 1;
+        }
+        if (start < text.length()) {
+            consumer.accept(stripCarriageReturn(text, start, text.length()));
+        }
+    }
+
+    private static void emitLine(StringBuilder line, Consumer<String> consumer) {
+        int end = line.length();
+        if (end > 0 && line.charAt(end - 1) == '\r') {
+            end--;
+        }
+        consumer.accept(line.substring(0, end));
+        line.setLength(0);
+    }
+
+    private static String stripCarriageReturn(String text, int start, int end) {
+        if (end > start && text.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return text.substring(start, end);
+    }
+}
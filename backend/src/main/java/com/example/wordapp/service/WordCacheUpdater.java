@@ -0,0 +1,311 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.config.TwoLevelCache;
+import com.example.wordapp.dto.WordPageResponse;
+import com.example.wordapp.entity.Word;
+import com.example.wordapp.util.TimeUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * 单词写操作后就地修补单词列表类缓存，而不是把该用户的所有缓存整个清掉：
+ * <ul>
+ *     <li>单词列表 / 首页：改动过的单词换成新值，按 updatedAt 归并回原来的顺序（并发写入时修补的先后
+ *     不一定等于 updatedAt 的先后，不能简单插到最前），删除的单词移除</li>
+ *     <li>错词列表：排序依据是最近一次答错的时间，缓存里没有这个字段，本次有答错时直接删除，其它改动只替换内容</li>
+ *     <li>学习统计 / 概览：计数器按增量修补在并发写入时会丢更新，直接删除，由下一次读取从数据库加载</li>
+ * </ul>
+ * 修补是读-改-写，同一用户的修补用锁串行化：本进程内用分段锁，多节点之间用 Redis 锁
+ * （{@code wordapp:cache-patch-lock:用户名}），并且只从 L2 读取当前值。拿不到锁时退回删除缓存项。
+ * 只修补已经存在的缓存项，不存在时什么都不做。缓存里的值可能被其它请求共享，修补时总是构造新的列表和对象。
+ * 修补出错时退回删除该缓存项。批量导入、切换调度算法这类大范围变更仍然直接清缓存。
+ */
+@Component
+public class WordCacheUpdater {
+    private static final Logger log = LoggerFactory.getLogger(WordCacheUpdater.class);
+    private static final String WORD_LIST = "wordListV2";
+    private static final String WORD_PAGE = "wordPageV1";
+    private static final String INCORRECT_WORDS = "incorrectWordsV2";
+    private static final String STUDY_STATS = "studyStatsV2";
+    private static final String STUDY_OVERVIEW = "studyOverviewV1";
+
+    // 与 WordRepository.findFirstPage 的排序一致
+    private static final Comparator<Word> PAGE_ORDER = Comparator
+            .comparing(Word::getUpdatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Word::getId, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private static final String LOCK_PREFIX = "wordapp:cache-patch-lock:";
+    private static final int LOCK_STRIPES = 64;
+    private static final long LOCK_WAIT_MILLIS = 1000;
+    private static final long LOCK_POLL_MILLIS = 20;
+    private static final Duration LOCK_TTL = Duration.ofSeconds(5);
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+
+    public WordCacheUpdater(CacheManager cacheManager, StringRedisTemplate redisTemplate) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * 统计和概览里有"今日复习数"，缓存 key 带上日期，过了零点自然换成新的缓存项，不会沿用前一天的今日复习数。
+     */
+    public static String dailyKey(String username) {
+        return username + ":" + TimeUtil.nowDate();
+    }
+
+    public void onCreated(String username, Word word) {
+        List<Word> changed = List.of(word);
+        withUserLock(username, () -> {
+            patch(WORD_LIST, username, (List<Word> words) -> merge(words, changed));
+            patch(WORD_PAGE, username, (WordPageResponse page) -> patchPage(page, changed, Set.of()));
+        }, WORD_LIST, WORD_PAGE);
+        evict(STUDY_OVERVIEW, dailyKey(username));
+    }
+
+    public void onUpdated(String username, Word word) {
+        List<Word> changed = List.of(word);
+        withUserLock(username, () -> {
+            patch(WORD_LIST, username, (List<Word> words) -> merge(words, changed));
+            patch(WORD_PAGE, username, (WordPageResponse page) -> patchPage(page, changed, Set.of()));
+            patch(INCORRECT_WORDS, username, (List<Word> words) -> replaceInPlace(words, changed));
+        }, WORD_LIST, WORD_PAGE, INCORRECT_WORDS);
+    }
+
+    public void onDeleted(String username, Long id) {
+        Set<Long> removed = Set.of(id);
+        withUserLock(username, () -> {
+            patch(WORD_LIST, username, (List<Word> words) -> remove(words, removed));
+            patch(WORD_PAGE, username, (WordPageResponse page) -> patchPage(page, List.of(), removed));
+            patch(INCORRECT_WORDS, username, (List<Word> words) -> remove(words, removed));
+        }, WORD_LIST, WORD_PAGE, INCORRECT_WORDS);
+        evict(STUDY_OVERVIEW, dailyKey(username));
+    }
+
+    /**
+     * 批量导入结束（包括中途失败）时调用，改动范围大，直接清掉单词列表类缓存和概览。
+     */
+    public void onImported(String username) {
+        evictAll(username, WORD_LIST, WORD_PAGE, INCORRECT_WORDS);
+        evict(STUDY_OVERVIEW, dailyKey(username));
+    }
+
+    /**
+     * @param reviewed     本次复习后的单词（每个单词一份）
+     * @param incorrectIds 答错的单词 id，按作答时间从早到晚
+     * @param reviewCount  本次写入的复习记录条数
+     */
+    public void onReviewed(String username, Collection<Word> reviewed, List<Long> incorrectIds, int reviewCount) {
+        withUserLock(username, () -> {
+            patch(WORD_LIST, username, (List<Word> words) -> merge(words, reviewed));
+            patch(WORD_PAGE, username, (WordPageResponse page) -> patchPage(page, reviewed, Set.of()));
+            if (incorrectIds.isEmpty()) {
+                patch(INCORRECT_WORDS, username, (List<Word> words) -> replaceInPlace(words, reviewed));
+            }
+        }, WORD_LIST, WORD_PAGE, INCORRECT_WORDS);
+        if (!incorrectIds.isEmpty()) {
+            evict(INCORRECT_WORDS, username);
+        }
+        if (reviewCount > 0) {
+            evict(STUDY_STATS, dailyKey(username));
+            evict(STUDY_OVERVIEW, dailyKey(username));
+        }
+    }
+
+    /**
+     * 持有该用户的本地锁和 Redis 锁时执行修补；等不到锁或 Redis 不可用时删除这些缓存项。
+     */
+    private void withUserLock(String username, Runnable patches, String... cacheNames) {
+        ReentrantLock local = stripes[Math.floorMod(username.hashCode(), LOCK_STRIPES)];
+        boolean locked = false;
+        try {
+            locked = local.tryLock(LOCK_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (!locked) {
+            evictAll(username, cacheNames);
+            return;
+        }
+        try {
+            String lockKey = LOCK_PREFIX + username;
+            String token = UUID.randomUUID().toString();
+            if (!tryRedisLock(lockKey, token)) {
+                evictAll(username, cacheNames);
+                return;
+            }
+            try {
+                patches.run();
+            } finally {
+                unlock(lockKey, token);
+            }
+        } finally {
+            local.unlock();
+        }
+    }
+
+    private boolean tryRedisLock(String lockKey, String token) {
+        long deadline = System.currentTimeMillis() + LOCK_WAIT_MILLIS;
+        try {
+            while (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, token, LOCK_TTL))) {
+                if (System.currentTimeMillis() >= deadline) {
+                    return false;
+                }
+                Thread.sleep(LOCK_POLL_MILLIS);
+            }
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (RuntimeException ex) {
+            log.warn("Cache patch lock unavailable for {}: {}", lockKey, ex.getMessage());
+            return false;
+        }
+    }
+
+    private void unlock(String lockKey, String token) {
+        try {
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey), token);
+        } catch (RuntimeException ex) {
+            log.debug("Failed to release cache patch lock {}: {}", lockKey, ex.getMessage());
+        }
+    }
+
+    private void evictAll(String key, String... cacheNames) {
+        for (String cacheName : cacheNames) {
+            evict(cacheName, key);
+        }
+    }
+
+    private void evict(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        try {
+            cache.evict(key);
+        } catch (RuntimeException ex) {
+            // 缓存不可用时由 TTL 兜底
+            log.warn("Failed to evict cache {} for {}: {}", cacheName, key, ex.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void patch(String cacheName, String key, UnaryOperator<T> update) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        try {
+            Cache.ValueWrapper current = cache instanceof TwoLevelCache twoLevel ? twoLevel.getShared(key) : cache.get(key);
+            if (current == null || current.get() == null) {
+                return;
+            }
+            cache.put(key, update.apply((T) current.get()));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to patch cache {} for {}, evicting: {}", cacheName, key, ex.getMessage());
+            evict(cacheName, key);
+        }
+    }
+
+    /**
+     * 去掉旧值后把改动的单词按 {@link #PAGE_ORDER} 归并进缓存列表（缓存列表本身已按该顺序排好）。
+     */
+    static List<Word> merge(List<Word> cached, Collection<Word> changed) {
+        List<Word> sorted = new ArrayList<>(changed);
+        sorted.sort(PAGE_ORDER);
+        Set<Long> ids = ids(changed);
+        List<Word> result = new ArrayList<>(cached.size() + changed.size());
+        int next = 0;
+        for (Word word : cached) {
+            if (ids.contains(word.getId())) {
+                continue;
+            }
+            while (next < sorted.size() && PAGE_ORDER.compare(sorted.get(next), word) <= 0) {
+                result.add(sorted.get(next++));
+            }
+            result.add(word);
+        }
+        result.addAll(sorted.subList(next, sorted.size()));
+        return result;
+    }
+
+    static List<Word> remove(List<Word> cached, Set<Long> removed) {
+        List<Word> result = new ArrayList<>(cached.size());
+        for (Word word : cached) {
+            if (!removed.contains(word.getId())) {
+                result.add(word);
+            }
+        }
+        return result;
+    }
+
+    static List<Word> replaceInPlace(List<Word> cached, Collection<Word> changed) {
+        Map<Long, Word> byId = byId(changed);
+        List<Word> result = new ArrayList<>(cached.size());
+        for (Word word : cached) {
+            result.add(byId.getOrDefault(word.getId(), word));
+        }
+        return result;
+    }
+
+    /**
+     * 首页只缓存默认大小：改动的单词归并到对应位置，超出一页的部分截掉并重新生成游标。
+     * 删除导致整页不满而后面还有数据时无法就地补齐，直接抛出让调用方删缓存。
+     */
+    static WordPageResponse patchPage(WordPageResponse page, Collection<Word> changed, Set<Long> removed) {
+        List<Word> items = remove(merge(page.items(), changed), removed);
+        boolean hasMore = page.nextCursor() != null;
+        if (items.size() < WordService.DEFAULT_PAGE_SIZE && hasMore) {
+            throw new IllegalStateException("first page no longer full");
+        }
+        if (items.size() > WordService.DEFAULT_PAGE_SIZE) {
+            items = new ArrayList<>(items.subList(0, WordService.DEFAULT_PAGE_SIZE));
+            hasMore = true;
+        }
+        return new WordPageResponse(items, hasMore ? WordService.encodeCursor(items.get(items.size() - 1)) : null);
+    }
+
+    private static Map<Long, Word> byId(Collection<Word> words) {
+        Map<Long, Word> byId = new HashMap<>();
+        for (Word word : words) {
+            byId.put(word.getId(), word);
+        }
+        return byId;
+    }
+
+    private static Set<Long> ids(Collection<Word> words) {
+        Set<Long> ids = new HashSet<>();
+        for (Word word : words) {
+            ids.add(word.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.wordapp.service;
+
+/**
+ * 单词本单行解析器：单趟扫描，按下标切分字段，不编译正则、不生成中间数组。
+ * 解析结果与原先基于正则的实现完全一致：
+ * <ul>
+ *     <li>分隔符优先级 TAB &gt; ｜ &gt; |，都没有时退回到 - – — : ：；分隔符两侧的空白一并吞掉（等价于 {@code \s*D\s*}）</li>
+ *     <li>最多切 7 段，多余内容留在最后一段</li>
+ *     <li>首段是纯数字序号时丢弃</li>
+ *     <li>例句取 examples 中第一个换行 / ； / ; / 、 之前的内容</li>
+ * </ul>
+ * 内部复用下标缓冲区，非线程安全，每个导入任务各用一个实例。
+ */
+public final class WordLineParser {
+    private static final int MAX_FIELDS = 7;
+
+    private static final int MODE_TAB = 0;
+    private static final int MODE_FULLWIDTH_PIPE = 1;
+    private static final int MODE_PIPE = 2;
+    private static final int MODE_FALLBACK = 3;
+
+    private final int[] starts = new int[MAX_FIELDS];
+    private final int[] ends = new int[MAX_FIELDS];
+    private int count;
+
+    public ParsedWord parse(CharSequence line) {
+        int mode = pickMode(line);
+        split(line, mode);
+        if (count == 1 && mode != MODE_FALLBACK) {
+            split(line, MODE_FALLBACK);
+        }
+        // 兼容带序号的单词本（如：4518<TAB>song<TAB>...）
+        int first = 0;
+        if (count >= 2 && isNumber(line, starts[0], ends[0])) {
+            first = 1;
+        }
+        int n = count - first;
+        String term = n > 0 ? field(line, first) : "";
+        String definition = n > 1 ? field(line, first + 1) : "";
+        String example = "";
+        String meanings = "";
+        String examples = "";
+        String wordRoot = "";
+        String similarWords = "";
+        String examTag = "";
+        if (n <= 3) {
+            example = n > 2 ? field(line, first + 2) : "";
+        } else {
+            meanings = field(line, first + 2);
+            examples = field(line, first + 3);
+            wordRoot = n > 4 ? field(line, first + 4) : "";
+            similarWords = n > 5 ? field(line, first + 5) : "";
+            examTag = n > 6 ? field(line, first + 6) : "";
+            if (!examples.isBlank()) {
+                example = trimmed(examples, 0, firstExampleEnd(examples));
+            }
+        }
+        if (term.isEmpty()) {
+            return null;
+        }
+        return new ParsedWord(term, definition, example, meanings, examples, wordRoot, similarWords, examTag);
+    }
+
+    private static int pickMode(CharSequence line) {
+        boolean fullwidthPipe = false;
+        boolean pipe = false;
+        for (int i = 0, len = line.length(); i < len; i++) {
+            char c = line.charAt(i);
+            if (c == '\t') {
+                return MODE_TAB;
+            }
+            if (c == '｜') {
+                fullwidthPipe = true;
+            } else if (c == '|') {
+                pipe = true;
+            }
+        }
+        if (fullwidthPipe) {
+            return MODE_FULLWIDTH_PIPE;
+        }
+        return pipe ? MODE_PIPE : MODE_FALLBACK;
+    }
+
+    /**
+     * 等价于 {@code line.split("\\s*" + D + "\\s*", 7)}：分隔符左侧连续空白从空白段起点算起，右侧空白贪婪吞掉。
+     */
+    private void split(CharSequence line, int mode) {
+        int len = line.length();
+        count = 0;
+        int fieldStart = 0;
+        int pos = 0;
+        while (count < MAX_FIELDS - 1) {
+            int matchStart = -1;
+            int whitespaceStart = -1;
+            int i = pos;
+            for (; i < len; i++) {
+                char c = line.charAt(i);
+                if (isDelimiter(c, mode)) {
+                    matchStart = whitespaceStart >= 0 ? whitespaceStart : i;
+                    break;
+                }
+                if (isRegexWhitespace(c)) {
+                    if (whitespaceStart < 0) {
+                        whitespaceStart = i;
+                    }
+                } else {
+                    whitespaceStart = -1;
+                }
+            }
+            if (matchStart < 0) {
+                break;
+            }
+            int matchEnd = i + 1;
+            while (matchEnd < len && isRegexWhitespace(line.charAt(matchEnd))) {
+                matchEnd++;
+            }
+            starts[count] = fieldStart;
+            ends[count] = matchStart;
+            count++;
+            fieldStart = matchEnd;
+            pos = matchEnd;
+        }
+        starts[count] = fieldStart;
+        ends[count] = len;
+        count++;
+    }
+
+    private String field(CharSequence line, int index) {
+        return trimmed(line, starts[index], ends[index]);
+    }
+
+    private static boolean isDelimiter(char c, int mode) {
+        return switch (mode) {
+            case MODE_TAB -> c == '\t';
+            case MODE_FULLWIDTH_PIPE -> c == '｜';
+            case MODE_PIPE -> c == '|';
+            default -> c == '-' || c == '–' || c == '—' || c == ':' || c == '：';
+        };
+    }
+
+    // 与正则 \s 一致：[ \t\n\x0B\f\r]
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    // 与 String.trim() 一致：去掉首尾 <= U+0020 的字符
+    private static String trimmed(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return start == end ? "" : text.subSequence(start, end).toString();
+    }
+
+    private static boolean isNumber(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int firstExampleEnd(String examples) {
+        for (int i = 0, len = examples.length(); i < len; i++) {
+            char c = examples.charAt(i);
+            if (c == '\n' || c == '；' || c == ';' || c == '、') {
+                return i;
+            }
+        }
+        return examples.length();
+    }
+
+    public record ParsedWord(
+            String term,
+            String definition,
+            String example,
+            String meanings,
+            String examples,
+            String wordRoot,
+            String similarWords,
+            String examTag
+    ) {
+    }
+}
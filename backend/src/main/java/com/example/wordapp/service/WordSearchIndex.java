@@ -0,0 +1,318 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.entity.Word;
+import com.example.wordapp.repository.WordRepository;
+import com.example.wordapp.repository.WordSearchRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 单词搜索的进程内索引，按用户懒加载，替代 {@code lower(term) like %q%} 全表扫描。
+ * <ul>
+ *     <li>前缀：按 term 排序的数组上二分查找</li>
+ *     <li>子串 / 释义：把该用户所有 term、释义分别拼成一个大字符串，用 indexOf 扫描，再按偏移量映射回单词</li>
+ * </ul>
+ * 排序：完全匹配 &gt; 前缀 &gt; term 子串 &gt; 释义/中文含义，同档内 term 越短越靠前。
+ * 写操作增量更新；批量导入直接丢弃该用户索引，下次查询时重建。索引有存活时间上限，多实例部署时最终一致。
+ */
+@Component
+public class WordSearchIndex {
+    private static final char SEPARATOR = '\u0000';
+
+    private final WordRepository wordRepository;
+    private final long ttlMillis;
+    private final Map<String, UserIndex> indexes;
+
+    public WordSearchIndex(WordRepository wordRepository,
+                           @Value("${app.search.max-users:64}") int maxUsers,
+                           @Value("${app.search.index-ttl-minutes:10}") long ttlMinutes) {
+        this.wordRepository = wordRepository;
+        this.ttlMillis = ttlMinutes * 60_000L;
+        int capacity = Math.max(1, maxUsers);
+        this.indexes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UserIndex> eldest) {
+                return size() > capacity;
+            }
+        });
+    }
+
+    /**
+     * @param termOnly 只匹配 term（列表筛选），否则同时匹配释义和中文含义
+     * @return 按相关度排序的单词 id
+     */
+    public List<Long> search(String username, String query, int limit, boolean termOnly) {
+        String normalized = normalize(query).replace(String.valueOf(SEPARATOR), "");
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        return index(username).snapshot().search(normalized, limit, termOnly);
+    }
+
+    public void onSaved(String username, Word word) {
+        UserIndex index = indexes.get(username);
+        if (index != null) {
+            index.put(new Entry(word.getId(), normalize(word.getTerm()), text(word.getDefinition(), word.getMeanings())));
+        }
+    }
+
+    public void onDeleted(String username, Long id) {
+        UserIndex index = indexes.get(username);
+        if (index != null) {
+            index.remove(id);
+        }
+    }
+
+    public void invalidate(String username) {
+        indexes.remove(username);
+    }
+
+    /**
+     * 重建时先把空索引放进 map 再查库，查库期间的写操作记录在索引里，装入查询结果后按顺序重放；
+     * 否则查询读到写入前的数据、而写操作的增量更新又因为索引还不在 map 里被丢掉，新索引会一直缺这条改动。
+     * 同一用户同时有多个查询时只有一个查库，其它的等它装完。
+     */
+    private UserIndex index(String username) {
+        long now = System.currentTimeMillis();
+        UserIndex index;
+        synchronized (indexes) {
+            index = indexes.get(username);
+            if (index != null && now - index.builtAt <= ttlMillis) {
+                return index;
+            }
+            index = new UserIndex(now);
+            indexes.put(username, index);
+        }
+        try {
+            List<Entry> entries = new ArrayList<>();
+            for (WordSearchRow row : wordRepository.findSearchRows(username)) {
+                entries.add(new Entry(row.getId(), normalize(row.getTerm()), text(row.getDefinition(), row.getMeanings())));
+            }
+            index.load(entries);
+        } catch (RuntimeException ex) {
+            indexes.remove(username, index);
+            index.fail(ex);
+            throw ex;
+        }
+        return index;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String text(String definition, String meanings) {
+        return normalize(definition) + '\n' + normalize(meanings);
+    }
+
+    private record Entry(long id, String term, String text) {
+    }
+
+    private record Hit(Entry entry, int tier) {
+    }
+
+    private static final class UserIndex {
+        private final long builtAt;
+        private final Map<Long, Entry> entries = new HashMap<>();
+        // 装入前收到的写操作，按 id 只保留最后一次，值为 null 表示删除
+        private Map<Long, Entry> pending = new LinkedHashMap<>();
+        private RuntimeException failure;
+        private Snapshot snapshot;
+
+        private UserIndex(long builtAt) {
+            this.builtAt = builtAt;
+        }
+
+        private synchronized void load(List<Entry> loaded) {
+            for (Entry entry : loaded) {
+                entries.put(entry.id(), entry);
+            }
+            pending.forEach((id, entry) -> {
+                if (entry == null) {
+                    entries.remove(id);
+                } else {
+                    entries.put(id, entry);
+                }
+            });
+            pending = null;
+            notifyAll();
+        }
+
+        private synchronized void fail(RuntimeException ex) {
+            failure = ex;
+            notifyAll();
+        }
+
+        private synchronized void put(Entry entry) {
+            if (pending != null) {
+                pending.put(entry.id(), entry);
+                return;
+            }
+            entries.put(entry.id(), entry);
+            snapshot = null;
+        }
+
+        private synchronized void remove(Long id) {
+            if (pending != null) {
+                pending.put(id, null);
+                return;
+            }
+            if (entries.remove(id) != null) {
+                snapshot = null;
+            }
+        }
+
+        // 写操作只标记失效，查询时按需重建，连续写入不会反复重建
+        private synchronized Snapshot snapshot() {
+            while (pending != null) {
+                if (failure != null) {
+                    throw failure;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for search index", ex);
+                }
+            }
+            if (snapshot == null) {
+                snapshot = new Snapshot(entries.values().toArray(new Entry[0]));
+            }
+            return snapshot;
+        }
+    }
+
+    private static final class Snapshot {
+        private static final int TIER_EXACT = 0;
+        private static final int TIER_PREFIX = 1;
+        private static final int TIER_TERM = 2;
+        private static final int TIER_TEXT = 3;
+        private static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::tier)
+                .thenComparingInt(hit -> hit.entry().term().length())
+                .thenComparing(hit -> hit.entry().term())
+                .thenComparingLong(hit -> hit.entry().id());
+
+        private final Entry[] byTerm;
+        private final String terms;
+        private final int[] termStarts;
+        private final String texts;
+        private final int[] textStarts;
+
+        private Snapshot(Entry[] entries) {
+            Arrays.sort(entries, Comparator.comparing(Entry::term).thenComparingLong(Entry::id));
+            this.byTerm = entries;
+            this.termStarts = new int[entries.length];
+            this.textStarts = new int[entries.length];
+            StringBuilder termBlob = new StringBuilder();
+            StringBuilder textBlob = new StringBuilder();
+            for (int i = 0; i < entries.length; i++) {
+                termStarts[i] = termBlob.length();
+                termBlob.append(entries[i].term()).append(SEPARATOR);
+                textStarts[i] = textBlob.length();
+                textBlob.append(entries[i].text()).append(SEPARATOR);
+            }
+            this.terms = termBlob.toString();
+            this.texts = textBlob.toString();
+        }
+
+        private List<Long> search(String query, int limit, boolean termOnly) {
+            boolean[] taken = new boolean[byTerm.length];
+            TopHits top = new TopHits(limit);
+            for (int i = lowerBound(query); i < byTerm.length && byTerm[i].term().startsWith(query); i++) {
+                taken[i] = true;
+                top.offer(byTerm[i], byTerm[i].term().length() == query.length() ? TIER_EXACT : TIER_PREFIX);
+            }
+            // 高档位已经凑满 limit 时，低档位不可能进入结果，直接跳过
+            if (top.count < limit) {
+                scan(terms, termStarts, query, TIER_TERM, taken, top);
+            }
+            if (!termOnly && top.count < limit) {
+                scan(texts, textStarts, query, TIER_TEXT, taken, top);
+            }
+            return top.ids();
+        }
+
+        private void scan(String blob, int[] starts, String query, int tier, boolean[] taken, TopHits top) {
+            int from = 0;
+            int entry = 0;
+            int idx;
+            while ((idx = blob.indexOf(query, from)) >= 0) {
+                // 命中偏移单调递增，顺序推进即可定位所属单词
+                while (entry + 1 < starts.length && starts[entry + 1] <= idx) {
+                    entry++;
+                }
+                if (!taken[entry]) {
+                    taken[entry] = true;
+                    top.offer(byTerm[entry], tier);
+                }
+                from = entry + 1 < starts.length ? starts[entry + 1] : blob.length();
+            }
+        }
+
+        private int lowerBound(String query) {
+            int lo = 0;
+            int hi = byTerm.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (byTerm[mid].term().compareTo(query) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    /**
+     * 只保留排名前 limit 的命中（大顶堆），避免短查询命中几万条时全量排序。
+     */
+    private static final class TopHits {
+        private final int limit;
+        private final PriorityQueue<Hit> heap;
+        private int count;
+
+        private TopHits(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.min(limit, 256) + 1, Snapshot.RANKING.reversed());
+        }
+
+        private void offer(Entry entry, int tier) {
+            count++;
+            if (heap.size() < limit) {
+                heap.add(new Hit(entry, tier));
+                return;
+            }
+            Hit worst = heap.peek();
+            if (worst.tier() < tier || (worst.tier() == tier && worst.entry().term().length() < entry.term().length())) {
+                return;
+            }
+            Hit hit = new Hit(entry, tier);
+            if (Snapshot.RANKING.compare(hit, worst) < 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+
+        private List<Long> ids() {
+            List<Hit> hits = new ArrayList<>(heap);
+            hits.sort(Snapshot.RANKING);
+            List<Long> ids = new ArrayList<>(hits.size());
+            for (Hit hit : hits) {
+                ids.add(hit.entry().id());
+            }
+            return ids;
+        }
+    }
+}
@@ -1,58 +1,119 @@
 package com.example.wordapp.service;
 
+import com.example.wordapp.dto.BatchReviewItem;
 import com.example.wordapp.dto.ImportResult;
 import com.example.wordapp.dto.ReviewRequest;
+import com.example.wordapp.dto.WordPageResponse;
 import com.example.wordapp.dto.WordPayload;
 import com.example.wordapp.entity.ReviewRecord;
+import com.example.wordapp.entity.SchedulerType;
 import com.example.wordapp.entity.User;
 import com.example.wordapp.entity.Word;
+import com.example.wordapp.repository.ReviewRecordJdbcRepository;
 import com.example.wordapp.repository.ReviewRecordRepository;
 import com.example.wordapp.repository.UserRepository;
+import com.example.wordapp.repository.WordJdbcRepository;
 import com.example.wordapp.repository.WordRepository;
 import lombok.RequiredArgsConstructor;
-import org.apache.poi.hwpf.HWPFDocument;
-import org.apache.poi.hwpf.extractor.WordExtractor;
-import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.springframework.cache.annotation.CacheEvict;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import com.example.wordapp.util.TimeUtil;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Locale;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class WordService {
+    private static final Logger log = LoggerFactory.getLogger(WordService.class);
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final int ID_CHUNK_SIZE = 500;
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
     private final WordRepository wordRepository;
+    private final WordJdbcRepository wordJdbcRepository;
     private final UserRepository userRepository;
     private final ReviewRecordRepository reviewRecordRepository;
+    private final WordSearchIndex searchIndex;
+    private final ReviewRecordJdbcRepository reviewRecordJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReviewSchedulers reviewSchedulers;
+    private final DueQueueService dueQueue;
+    private final CurrentUserResolver currentUserResolver;
+    private final WordCacheUpdater wordCacheUpdater;
+
+    @Value("${app.import.batch-size:500}")
+    private int importBatchSize;
 
-    @Cacheable(cacheNames = "wordListV2", key = "#username", condition = "#query == null || #query.isBlank()")
+    @Cacheable(cacheNames = "wordListV2", sync = true, key = "#username", condition = "#query == null || #query.isBlank()")
     public List<Word> listWords(String username, String query) {
         if (query != null && !query.isBlank()) {
-            return wordRepository.findByOwnerUsernameAndTermContainingIgnoreCaseOrderByUpdatedAtDesc(username, query.trim());
+            List<Word> words = loadInOrder(username, searchIndex.search(username, query, Integer.MAX_VALUE, true));
+            words.sort(Comparator.comparing(Word::getUpdatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+            return words;
         }
         return wordRepository.findByOwnerUsernameOrderByUpdatedAtDesc(username);
     }
 
-    @CacheEvict(cacheNames = {"wordListV2", "dueWordsV2", "incorrectWordsV2", "studyOverviewV1"}, key = "#username")
+    /**
+     * 搜索 term（前缀/子串）和释义、中文含义，按相关度排序返回前 limit 条。
+     */
+    public List<Word> searchWords(String username, String query, int limit) {
+        int safeLimit = Math.max(1, Math.min(MAX_SEARCH_LIMIT, limit));
+        return loadInOrder(username, searchIndex.search(username, query, safeLimit, false));
+    }
+
+    /**
+     * keyset 分页：按 (updatedAt, id) 倒序，cursor 为上一页最后一条的位置，
+     * 翻到第几页都只走一次索引范围扫描。只缓存默认大小的首页。
+     */
+    @Cacheable(cacheNames = "wordPageV1", sync = true, key = "#username",
+            condition = "(#cursor == null || #cursor.isBlank()) && #size == T(com.example.wordapp.service.WordService).DEFAULT_PAGE_SIZE")
+    public WordPageResponse listWordPage(String username, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(MAX_PAGE_SIZE, size));
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<Word> words;
+        if (cursor == null || cursor.isBlank()) {
+            words = wordRepository.findFirstPage(username, pageable);
+        } else {
+            PageCursor position = decodeCursor(cursor);
+            words = position.updatedAt() == null
+                    ? wordRepository.findUndatedPageAfter(username, position.id(), pageable)
+                    : wordRepository.findPageAfter(username, position.updatedAt(), position.id(), pageable);
+        }
+        if (words.size() <= pageSize) {
+            return new WordPageResponse(words, null);
+        }
+        List<Word> items = new ArrayList<>(words.subList(0, pageSize));
+        return new WordPageResponse(items, encodeCursor(items.get(items.size() - 1)));
+    }
+
     public Word createWord(String username, WordPayload payload) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "用户不存在"));
+        User user = currentUserResolver.resolve(username);
         Word word = Word.builder()
                 .term(payload.term())
                 .definition(payload.definition())
@@ -65,10 +126,13 @@ public class WordService {
                 .memoryStrength(0.2)
                 .owner(user)
                 .build();
-        return wordRepository.save(word);
+        Word saved = wordRepository.save(word);
+        searchIndex.onSaved(username, saved);
+        dueQueue.onScheduled(username, saved);
+        wordCacheUpdater.onCreated(username, saved);
+        return saved;
     }
 
-    @CacheEvict(cacheNames = {"wordListV2", "dueWordsV2", "incorrectWordsV2", "studyOverviewV1"}, key = "#username")
     public Word updateWord(String username, Long id, WordPayload payload) {
         Word word = findOwnedWord(username, id);
         word.setTerm(payload.term());
@@ -79,54 +143,114 @@ public class WordService {
         word.setWordRoot(payload.wordRoot());
         word.setSimilarWords(payload.similarWords());
         word.setExamTag(payload.examTag());
-        return wordRepository.save(word);
+        Word saved = wordRepository.save(word);
+        searchIndex.onSaved(username, saved);
+        wordCacheUpdater.onUpdated(username, saved);
+        return saved;
     }
 
-    @CacheEvict(cacheNames = {"wordListV2", "dueWordsV2", "incorrectWordsV2", "studyOverviewV1"}, key = "#username")
     public void deleteWord(String username, Long id) {
         Word word = findOwnedWord(username, id);
         wordRepository.delete(word);
+        searchIndex.onDeleted(username, id);
+        dueQueue.onDeleted(username, id);
+        wordCacheUpdater.onDeleted(username, id);
     }
 
-    @CacheEvict(cacheNames = {"wordListV2", "dueWordsV2", "incorrectWordsV2", "studyStatsV2", "studyOverviewV1"}, key = "#username")
     public Word review(String username, Long id, ReviewRequest request) {
-        Word word = findOwnedWord(username, id);
+        Word word = wordRepository.findForReview(id, username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "未找到该单词"));
         boolean correct = Boolean.TRUE.equals(request.correct());
-        int familiarity = word.getFamiliarity() == null ? 0 : word.getFamiliarity();
-        familiarity = Math.max(0, Math.min(5, correct ? familiarity + 1 : familiarity - 1));
-        word.setFamiliarity(familiarity);
-        double memoryStrength = word.getMemoryStrength() == null ? 0.2 : word.getMemoryStrength();
-        int intervalDays = 1;
-        ReviewRecord last = reviewRecordRepository.findTopByWordIdOrderByReviewedAtDesc(word.getId());
-        if (last != null && last.getReviewedAt() != null) {
-            long days = ChronoUnit.DAYS.between(last.getReviewedAt(), TimeUtil.nowDateTime());
-            intervalDays = (int) Math.max(1, days);
-        }
-        if (correct) {
-            double gain = 0.08 + 0.04 * Math.log1p(intervalDays);
-            memoryStrength = Math.min(1.0, memoryStrength + gain);
-        } else {
-            memoryStrength = Math.max(0.0, memoryStrength - 0.2);
-        }
-        word.setMemoryStrength(memoryStrength);
-        word.setNextReviewAt(calculateNextReview(familiarity, memoryStrength, intervalDays, correct));
-        wordRepository.save(word);
+        ReviewScheduler scheduler = reviewSchedulers.get(word.getOwner().getScheduler());
+        applyReview(word, scheduler, new ReviewState(), correct, lastReviewedAt(word), TimeUtil.nowDateTime());
+        Word saved = wordRepository.save(word);
 
         ReviewRecord record = ReviewRecord.builder()
-                .word(word)
-                .user(word.getOwner())
+                .word(saved)
+                .user(saved.getOwner())
                 .correct(correct)
                 .build();
         reviewRecordRepository.save(record);
-        return word;
+        dueQueue.onScheduled(username, saved);
+        wordCacheUpdater.onReviewed(username, List.of(saved), correct ? List.of() : List.of(saved.getId()), 1);
+        return saved;
     }
 
-    @Cacheable(cacheNames = "dueWordsV2", key = "#username")
-    public List<Word> dueWords(String username) {
-        return wordRepository.findDueWords(username, TimeUtil.nowDateTime());
+    /**
+     * 批量提交一次学习中的全部作答：一次查询加载单词，逐条计算调度，
+     * 单词更新走 Hibernate JDBC batch，复习记录走 JdbcTemplate batch，整批一个事务，缓存只修补一次。
+     * 同一个单词出现多次时按作答时间先后依次计算。
+     */
+    public List<Word> reviewBatch(String username, List<BatchReviewItem> items) {
+        LocalDateTime now = TimeUtil.nowDateTime();
+        List<BatchReviewItem> ordered = new ArrayList<>(items);
+        ordered.sort(Comparator.comparing(item -> answeredAt(item, now)));
+        Set<Long> ids = new LinkedHashSet<>();
+        items.forEach(item -> ids.add(item.wordId()));
+        List<Long> incorrectIds = new ArrayList<>();
+
+        List<Word> reviewed = transactionTemplate.execute(status -> {
+            Map<Long, Word> words = new HashMap<>();
+            for (Word word : wordRepository.findForReview(username, ids)) {
+                words.put(word.getId(), word);
+            }
+            if (words.size() != ids.size()) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "未找到该单词");
+            }
+            ReviewScheduler scheduler = reviewSchedulers.get(words.values().iterator().next().getOwner().getScheduler());
+            ReviewState state = new ReviewState();
+            Map<Long, LocalDateTime> lastReviewedAt = new HashMap<>();
+            List<Long> legacyIds = new ArrayList<>();
+            for (Word word : words.values()) {
+                if (word.getReviewCount() == null) {
+                    legacyIds.add(word.getId());
+                } else if (word.getLastReviewedAt() != null) {
+                    lastReviewedAt.put(word.getId(), word.getLastReviewedAt());
+                }
+            }
+            if (!legacyIds.isEmpty()) {
+                for (Object[] row : reviewRecordRepository.findLastReviewTimes(legacyIds)) {
+                    lastReviewedAt.put((Long) row[0], (LocalDateTime) row[1]);
+                }
+            }
+
+            List<ReviewRecord> records = new ArrayList<>(ordered.size());
+            for (BatchReviewItem item : ordered) {
+                Word word = words.get(item.wordId());
+                boolean correct = Boolean.TRUE.equals(item.correct());
+                LocalDateTime reviewedAt = answeredAt(item, now);
+                applyReview(word, scheduler, state, correct, lastReviewedAt.get(word.getId()), reviewedAt);
+                lastReviewedAt.put(word.getId(), reviewedAt);
+                if (!correct) {
+                    incorrectIds.add(word.getId());
+                }
+                records.add(ReviewRecord.builder()
+                        .word(word)
+                        .user(word.getOwner())
+                        .correct(correct)
+                        .reviewedAt(reviewedAt)
+                        .build());
+            }
+            reviewRecordJdbcRepository.insertAll(records);
+            wordRepository.flush();
+
+            List<Word> result = new ArrayList<>(ids.size());
+            ids.forEach(id -> result.add(words.get(id)));
+            return result;
+        });
+        dueQueue.onScheduled(username, reviewed);
+        wordCacheUpdater.onReviewed(username, reviewed, incorrectIds, ordered.size());
+        return reviewed;
     }
 
-    @Cacheable(cacheNames = "incorrectWordsV2", key = "#username")
+    /**
+     * 当前已到期的单词，按到期时间从早到晚；limit &lt;= 0 时返回全部。到期 id 来自 {@link DueQueueService}。
+     */
+    public List<Word> dueWords(String username, int limit) {
+        return loadInOrder(username, dueQueue.dueIds(username, TimeUtil.nowDateTime(), limit));
+    }
+
+    @Cacheable(cacheNames = "incorrectWordsV2", sync = true, key = "#username")
     public List<Word> incorrectWords(String username) {
         List<ReviewRecord> records = reviewRecordRepository.findIncorrectRecordsWithWord(username);
         Map<Long, Word> unique = new LinkedHashMap<>();
@@ -139,158 +263,198 @@ public class WordService {
         return new ArrayList<>(unique.values());
     }
 
-    @CacheEvict(cacheNames = {"wordListV2", "dueWordsV2", "incorrectWordsV2", "studyOverviewV1"}, key = "#username")
+    /**
+     * 导入单词本。每 {@code importBatchSize} 条一个批次，各批次分别提交：中途出错时已提交的批次保留，
+     * 不回滚整个导入（单词本可能有几十万行，放在一个事务里会长时间占着连接和锁）。
+     * 无论成功与否，结束时都会清理该用户的单词缓存、搜索索引和到期队列，已提交的部分立即可见。
+     */
     public ImportResult importWords(String username, MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "请上传有效的单词本文件");
         }
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "用户不存在"));
-        String content = extractText(file);
-        ParseResult parseResult = parseWords(content);
-        if (!parseResult.words.isEmpty()) {
-            List<Word> toSave = new ArrayList<>();
-            for (ParsedWord parsed : parseResult.words) {
-                Word word = Word.builder()
-                        .term(parsed.term)
-                        .definition(parsed.definition)
-                        .example(parsed.example)
-                        .meanings(parsed.meanings)
-                        .examples(parsed.examples)
-                        .wordRoot(parsed.wordRoot)
-                        .similarWords(parsed.similarWords)
-                        .examTag(parsed.examTag)
-                        .memoryStrength(0.2)
-                        .owner(user)
-                        .build();
-                toSave.add(word);
-            }
-            wordRepository.saveAll(toSave);
+        try (InputStream input = file.getInputStream()) {
+            return doImport(username, file.getOriginalFilename(), input, new ImportProgress());
+        } catch (IOException ex) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "解析单词本失败");
         }
-        return new ImportResult(parseResult.words.size(), parseResult.skippedCount);
     }
 
-    private Word findOwnedWord(String username, Long id) {
-        return wordRepository.findByIdAndOwnerUsername(id, username)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "未找到该单词"));
+    /**
+     * 异步导入任务入口：进度实时写入 progress，缓存只在整个任务结束时清理一次（出错时也会清理）。
+     * 批次提交方式同 {@link #importWords(String, MultipartFile)}，失败时 progress 里的导入数即已提交的条数。
+     */
+    public ImportResult importWords(String username, String filename, InputStream input, ImportProgress progress) {
+        return doImport(username, filename, input, progress);
     }
 
-    private LocalDateTime calculateNextReview(int familiarity, double memoryStrength, int intervalDays, boolean correct) {
-        LocalDateTime now = TimeUtil.nowDateTime();
-        if (!correct) {
-            return now.plus(6, ChronoUnit.HOURS);
+    private List<Word> loadInOrder(String username, List<Long> ids) {
+        Map<Long, Word> byId = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + ID_CHUNK_SIZE));
+            for (Word word : wordRepository.findByOwnerUsernameAndIdIn(username, chunk)) {
+                byId.put(word.getId(), word);
+            }
         }
-        if (memoryStrength < 0.3) {
-            return now.plus(12, ChronoUnit.HOURS);
+        List<Word> words = new ArrayList<>(byId.size());
+        for (Long id : ids) {
+            Word word = byId.get(id);
+            if (word != null) {
+                words.add(word);
+            }
         }
-        double base = 1 + memoryStrength * 8 + Math.log1p(intervalDays) + familiarity * 1.5;
-        int days = (int) Math.round(Math.min(60, Math.max(1, base)));
-        return now.plus(days, ChronoUnit.DAYS);
+        return words;
     }
 
-    private String extractText(MultipartFile file) {
-        String filename = file.getOriginalFilename();
-        String lower = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+    // 早期数据可能没有 updatedAt，游标里时间部分留空
+    static String encodeCursor(Word last) {
+        String raw = (last.getUpdatedAt() == null ? "" : last.getUpdatedAt().toString()) + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static PageCursor decodeCursor(String cursor) {
         try {
-            if (lower.endsWith(".txt")) {
-                return new String(file.getBytes(), StandardCharsets.UTF_8);
-            }
-            if (lower.endsWith(".docx")) {
-                try (XWPFDocument document = new XWPFDocument(file.getInputStream());
-                     XWPFWordExtractor extractor = new XWPFWordExtractor(document)) {
-                    return extractor.getText();
-                }
-            }
-            if (lower.endsWith(".doc")) {
-                try (HWPFDocument document = new HWPFDocument(file.getInputStream());
-                     WordExtractor extractor = new WordExtractor(document)) {
-                    return extractor.getText();
-                }
-            }
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int idx = raw.lastIndexOf('|');
+            String updatedAt = raw.substring(0, idx);
+            return new PageCursor(updatedAt.isEmpty() ? null : LocalDateTime.parse(updatedAt), Long.parseLong(raw.substring(idx + 1)));
+        } catch (RuntimeException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "分页游标无效");
+        }
+    }
+
+    private ImportResult doImport(String username, String filename, InputStream input, ImportProgress progress) {
+        User user = currentUserResolver.resolve(username);
+        long startedAt = System.nanoTime();
+        ImportBatch batch = new ImportBatch(user, progress);
+        try {
+            WordBookReader.forEachLine(filename, input, batch::accept);
+            batch.flush();
         } catch (IOException ex) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "解析单词本失败");
+        } finally {
+            // 出错前已提交的批次也要让读者看到
+            searchIndex.invalidate(username);
+            dueQueue.invalidate(username);
+            wordCacheUpdater.onImported(username);
         }
-        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "仅支持 txt/doc/docx 格式");
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+        int imported = progress.getImportedCount();
+        int skipped = progress.getSkippedCount();
+        log.info("Imported {} words for {} in {} ms ({} rows/s), skipped {}",
+                imported, username, elapsedMillis, imported * 1000L / elapsedMillis, skipped);
+        return new ImportResult(imported, skipped);
     }
 
-    private ParseResult parseWords(String content) {
-        List<ParsedWord> words = new ArrayList<>();
-        int skipped = 0;
-        String[] lines = content.split("\\r?\\n");
-        for (String line : lines) {
-            String trimmed = line.trim();
-            if (trimmed.isEmpty()) {
-                continue;
-            }
-            ParsedWord parsed = parseLine(trimmed);
-            if (parsed == null || parsed.term.isBlank()) {
-                skipped++;
-                continue;
-            }
-            words.add(parsed);
-        }
-        return new ParseResult(words, skipped);
+    private Word findOwnedWord(String username, Long id) {
+        return wordRepository.findByIdAndOwnerUsername(id, username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "未找到该单词"));
     }
 
-    private ParsedWord parseLine(String line) {
-        String[] parts = splitByDelimiters(line, 7, "\t", "｜", "|");
-        if (parts.length == 1) {
-            parts = line.split("\\s*[-–—:：]\\s*", 7);
+    /**
+     * 根据本次作答交给用户选择的调度器更新熟悉度、记忆强度和下次复习时间（单条复习和批量复习共用）。
+     * state 只是计算用的缓冲，批量复习时整批复用一个实例。
+     */
+    private void applyReview(Word word, ReviewScheduler scheduler, ReviewState state, boolean correct,
+                             LocalDateTime lastReviewedAt, LocalDateTime reviewedAt) {
+        state.reset(
+                word.getFamiliarity() == null ? 0 : word.getFamiliarity(),
+                word.getMemoryStrength() == null ? 0.2 : word.getMemoryStrength(),
+                word.getStability() == null ? 0 : word.getStability(),
+                word.getDifficulty() == null ? 0 : word.getDifficulty(),
+                word.getRepetitions() == null ? 0 : word.getRepetitions());
+        double elapsedDays = lastReviewedAt == null
+                ? -1
+                : Duration.between(lastReviewedAt, reviewedAt).toMillis() / (double) MILLIS_PER_DAY;
+        scheduler.review(state, correct, elapsedDays);
+        word.setFamiliarity(state.familiarity);
+        word.setMemoryStrength(state.memoryStrength);
+        if (scheduler.type() != SchedulerType.DEFAULT) {
+            word.setStability(state.stability);
+            word.setDifficulty(state.difficulty);
+            word.setRepetitions(state.repetitions);
         }
-        // 兼容带序号的单词本（如：4518<TAB>song<TAB>...）
-        if (parts.length >= 2 && parts[0].trim().matches("\\d+")) {
-            parts = Arrays.copyOfRange(parts, 1, parts.length);
-        }
-        String term = parts.length > 0 ? parts[0].trim() : "";
-        String definition = parts.length > 1 ? parts[1].trim() : "";
-        String example = "";
-        String meanings = "";
-        String examples = "";
-        String wordRoot = "";
-        String similarWords = "";
-        String examTag = "";
-        if (parts.length <= 3) {
-            example = parts.length > 2 ? parts[2].trim() : "";
-        } else {
-            meanings = parts.length > 2 ? parts[2].trim() : "";
-            examples = parts.length > 3 ? parts[3].trim() : "";
-            wordRoot = parts.length > 4 ? parts[4].trim() : "";
-            similarWords = parts.length > 5 ? parts[5].trim() : "";
-            examTag = parts.length > 6 ? parts[6].trim() : "";
-            if (!examples.isBlank()) {
-                String[] exampleParts = examples.split("\\r?\\n|；|;|、");
-                if (exampleParts.length > 0) {
-                    example = exampleParts[0].trim();
-                }
+        word.setNextReviewAt(reviewedAt.plusMinutes(state.intervalMinutes));
+        word.setLastReviewedAt(reviewedAt);
+        // 计数为 null 说明历史记录尚未回填，交给回填任务按 review_records 统一计算
+        if (word.getReviewCount() != null) {
+            word.setReviewCount(word.getReviewCount() + 1);
+            if (!correct) {
+                word.setLapseCount((word.getLapseCount() == null ? 0 : word.getLapseCount()) + 1);
             }
         }
-        if (term.isEmpty()) {
-            return null;
+    }
+
+    // 已回填的单词直接读冗余字段；尚未回填的历史数据退回查询 review_records
+    private LocalDateTime lastReviewedAt(Word word) {
+        if (word.getReviewCount() != null) {
+            return word.getLastReviewedAt();
         }
-        return new ParsedWord(term, definition, example, meanings, examples, wordRoot, similarWords, examTag);
+        ReviewRecord last = reviewRecordRepository.findTopByWordIdOrderByReviewedAtDesc(word.getId());
+        return last == null ? null : last.getReviewedAt();
     }
 
-    private String[] splitByDelimiters(String line, int limit, String... delimiters) {
-        for (String delimiter : delimiters) {
-            if (line.contains(delimiter)) {
-                return line.split("\\s*" + java.util.regex.Pattern.quote(delimiter) + "\\s*", limit);
-            }
+    // 客户端作答时间不可信：缺失或晚于当前时间时按当前时间处理
+    private static LocalDateTime answeredAt(BatchReviewItem item, LocalDateTime now) {
+        if (item.answeredAt() == null) {
+            return now;
         }
-        return new String[]{line};
+        LocalDateTime answeredAt = LocalDateTime.ofInstant(item.answeredAt(), TimeUtil.CHINA_ZONE);
+        return answeredAt.isAfter(now) ? now : answeredAt;
     }
 
-    private record ParsedWord(
-            String term,
-            String definition,
-            String example,
-            String meanings,
-            String examples,
-            String wordRoot,
-            String similarWords,
-            String examTag
-    ) {
+    private record PageCursor(LocalDateTime updatedAt, Long id) {
     }
 
-    private record ParseResult(List<ParsedWord> words, int skippedCount) {
+    /**
+     * 导入缓冲：逐行解析，攒满 {@code importBatchSize} 条就落库一次，
+     * 内存占用只与批次大小有关，与单词本大小无关；每批通过 JDBC batch 一次写入。
+     */
+    private final class ImportBatch {
+        private final User owner;
+        private final ImportProgress progress;
+        private final WordLineParser parser = new WordLineParser();
+        private final List<Word> pending = new ArrayList<>();
+
+        private ImportBatch(User owner, ImportProgress progress) {
+            this.owner = owner;
+            this.progress = progress;
+        }
+
+        private void accept(String line) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) {
+                return;
+            }
+            progress.lineParsed();
+            WordLineParser.ParsedWord parsed = parser.parse(trimmed);
+            if (parsed == null || parsed.term().isBlank()) {
+                progress.skipped();
+                return;
+            }
+            pending.add(Word.builder()
+                    .term(parsed.term())
+                    .definition(parsed.definition())
+                    .example(parsed.example())
+                    .meanings(parsed.meanings())
+                    .examples(parsed.examples())
+                    .wordRoot(parsed.wordRoot())
+                    .similarWords(parsed.similarWords())
+                    .examTag(parsed.examTag())
+                    .memoryStrength(0.2)
+                    .owner(owner)
+                    .build());
+            if (pending.size() >= Math.max(1, importBatchSize)) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            wordJdbcRepository.insertAll(pending, owner.getId());
+            progress.imported(pending.size());
+            pending.clear();
+        }
     }
 }
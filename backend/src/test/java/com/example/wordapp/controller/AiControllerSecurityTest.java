@@ -0,0 +1,86 @@
+package com.example.wordapp.controller;
+
+import com.example.wordapp.config.JwtAuthenticationFilter;
+import com.example.wordapp.config.SecurityConfig;
+import com.example.wordapp.service.AiService;
+import com.example.wordapp.service.CurrentUserResolver;
+import com.example.wordapp.service.JwtPrincipal;
+import com.example.wordapp.service.JwtService;
+import com.example.wordapp.service.PasswordUpgradeService;
+import com.example.wordapp.service.TokenVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 返回 CompletableFuture 的接口会在结果就绪后再派发一次（ASYNC），这次派发同样要带着登录身份通过鉴权。
+ */
+@WebMvcTest(AiController.class)
+@Import({SecurityConfig.class, JwtAuthenticationFilter.class})
+class AiControllerSecurityTest {
+    private static final String TOKEN = "valid-token";
+    private static final String BODY = """
+            {"score":3,"total":5,"timeUsedSeconds":60,"levelEstimate":"CET4","answers":[]}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AiService aiService;
+    @MockBean
+    private JwtService jwtService;
+    @MockBean
+    private TokenVersionService tokenVersionService;
+    @MockBean
+    private CurrentUserResolver currentUserResolver;
+    @MockBean
+    private PasswordUpgradeService passwordUpgradeService;
+
+    @BeforeEach
+    void setUp() {
+        when(jwtService.parse(TOKEN))
+                .thenReturn(new JwtPrincipal(1L, "alice", 0, System.currentTimeMillis() + 60_000));
+        when(tokenVersionService.isCurrent(any())).thenReturn(true);
+        when(aiService.analyzeVocab(any())).thenReturn(CompletableFuture.completedFuture("词汇量约 4000"));
+    }
+
+    @Test
+    void asyncDispatchKeepsAuthentication() throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/ai/vocab-analysis")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.analysis").value("词汇量约 4000"));
+    }
+
+    @Test
+    void anonymousRequestIsRejected() throws Exception {
+        mockMvc.perform(post("/api/ai/vocab-analysis")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.wordapp.controller;
+
+import com.example.wordapp.entity.User;
+import com.example.wordapp.repository.UserRepository;
+import com.example.wordapp.service.CurrentUserResolver;
+import com.example.wordapp.service.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 一次 {@code /api/study/dashboard} 请求实际执行的 SQL 条数：数据源外面包一层计数代理，
+ * 记下请求期间（含 dashboardExecutor 上的并发查询）准备和执行的每条语句。
+ * 对比关闭请求内用户缓存（每次取用户都查库，即改动前的行为）和正常情况下的条数，并检查用户表只查一次。
+ * <p>
+ * 需要与应用相同的 MySQL 和 Redis，设置 {@code MYSQL_HOST} 后才运行：
+ * {@code MYSQL_HOST=localhost mvn test -Dtest=DashboardStatementCountTest}
+ */
+@SpringBootTest(properties = {
+        "app.backfill.enabled=false",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+@EnabledIfEnvironmentVariable(named = "MYSQL_HOST", matches = ".+")
+class DashboardStatementCountTest {
+    private static final Logger log = LoggerFactory.getLogger(DashboardStatementCountTest.class);
+    private static final List<String> statements = new ArrayList<>();
+    private static volatile boolean recording;
+    private static volatile boolean memoizeUser = true;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private User user;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("dash-" + UUID.randomUUID().toString().substring(0, 8))
+                .password("{noop}unused")
+                .tokenVersion(0)
+                .build());
+        token = jwtService.generateToken(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        memoizeUser = true;
+        userRepository.delete(user);
+    }
+
+    @Test
+    void dashboardQueriesUsersOnceAndRunsFewerStatementsThanWithoutMemo() throws Exception {
+        // 预热：令牌版本等与本次改动无关的缓存先加载好
+        dashboard();
+
+        memoizeUser = false;
+        List<String> before = recordDashboard();
+        memoizeUser = true;
+        List<String> after = recordDashboard();
+
+        log.info("Dashboard statements: {} without user memo ({} on users), {} with memo ({} on users)",
+                before.size(), userSelects(before), after.size(), userSelects(after));
+        after.forEach(sql -> log.info("  {}", sql));
+        assertEquals(1, userSelects(after));
+        assertTrue(after.size() <= before.size(), "after=" + after.size() + " before=" + before.size());
+    }
+
+    private List<String> recordDashboard() throws Exception {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        synchronized (statements) {
+            statements.clear();
+        }
+        recording = true;
+        try {
+            dashboard();
+        } finally {
+            recording = false;
+        }
+        synchronized (statements) {
+            return new ArrayList<>(statements);
+        }
+    }
+
+    private void dashboard() throws Exception {
+        mockMvc.perform(get("/api/study/dashboard")
+                        .param("dailyTarget", "20")
+                        .param("newWordRatio", "50")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    private static long userSelects(List<String> sql) {
+        return sql.stream()
+                .map(s -> s.toLowerCase(Locale.ROOT))
+                .filter(s -> s.startsWith("select") && s.contains(" from users "))
+                .count();
+    }
+
+    private static void record(String sql) {
+        if (recording) {
+            synchronized (statements) {
+                statements.add(sql.trim().replaceAll("\\s+", " "));
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class CountingConfig {
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+                }
+            };
+        }
+
+        /**
+         * 关闭时每次都查库，即加请求内缓存之前的行为。
+         */
+        @Bean
+        @Primary
+        CurrentUserResolver switchableCurrentUserResolver(UserRepository userRepository) {
+            return new CurrentUserResolver(userRepository) {
+                @Override
+                public Optional<User> find(String username) {
+                    return memoizeUser ? super.find(username) : userRepository.findByUsername(username);
+                }
+            };
+        }
+    }
+
+    // 数据源返回的连接、连接创建的语句都包一层，prepareXxx(sql) 和 Statement.execute*(sql) 记一条
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (args != null && args.length > 0 && args[0] instanceof String sql && isStatement(target, method)) {
+                record(sql);
+            }
+            Object result = invoke(method, target, args);
+            if (result instanceof Connection connection) {
+                return proxy(Connection.class, connection);
+            }
+            if (result instanceof Statement statement && !(result instanceof PreparedStatement)) {
+                return proxy(Statement.class, statement);
+            }
+            return result;
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static boolean isStatement(Object target, Method method) {
+        String name = method.getName();
+        if (target instanceof Connection) {
+            return name.equals("prepareStatement") || name.equals("prepareCall");
+        }
+        return target instanceof Statement && (name.startsWith("execute") || name.equals("addBatch"));
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
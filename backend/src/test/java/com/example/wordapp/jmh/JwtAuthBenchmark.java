@@ -0,0 +1,116 @@
+package com.example.wordapp.jmh;
+
+import com.example.wordapp.entity.User;
+import com.example.wordapp.service.JwtPrincipal;
+import com.example.wordapp.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 鉴权过滤器中令牌处理的开销对比（不含数据库）：
+ * <ul>
+ *     <li>old：最早的做法，extractUsername 和 isTokenValid 各自新建解析器、完整解析两次（另外还有一次按用户名查库）</li>
+ *     <li>keyPerCall：解析一次，但每次都重新生成密钥、新建解析器</li>
+ *     <li>parseOnce：{@link JwtService#parse} 首次见到的令牌，用启动时构建的密钥和解析器验签一次</li>
+ *     <li>cached：同一令牌再次请求，命中已验签令牌缓存</li>
+ * </ul>
+ * 每种做法分别在 1 个线程（{@link OneThread}）和所有核（{@link AllThreads}）上跑，
+ * 对比两者的总吞吐可以看出多核下是否有共享状态争用。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public abstract class JwtAuthBenchmark {
+    private static final String SECRET = "benchmark-secret-benchmark-secret-0123456789";
+    private static final int DISTINCT_TOKENS = 1000;
+
+    @Threads(1)
+    public static class OneThread extends JwtAuthBenchmark {
+    }
+
+    @Threads(Threads.MAX)
+    public static class AllThreads extends JwtAuthBenchmark {
+    }
+
+    @State(Scope.Benchmark)
+    public static class Services {
+        // 缓存容量为 1 时几乎每次都未命中，用来测首次解析的开销
+        JwtService uncached;
+        JwtService cached;
+        String[] tokens;
+
+        @Setup
+        public void setUp() {
+            uncached = new JwtService(SECRET, "k1", "", 60, 1);
+            cached = new JwtService(SECRET, "k1", "", 60, DISTINCT_TOKENS * 2L);
+            tokens = new String[DISTINCT_TOKENS];
+            for (int i = 0; i < DISTINCT_TOKENS; i++) {
+                tokens[i] = uncached.generateToken(User.builder().id((long) i).username("user" + i).tokenVersion(0).build());
+            }
+        }
+    }
+
+    /**
+     * 每个线程从随机位置开始轮流取令牌，线程之间不共享游标。
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        @Setup
+        public void setUp() {
+            next = ThreadLocalRandom.current().nextInt(DISTINCT_TOKENS);
+        }
+
+        String next(Services services) {
+            next = next + 1 == DISTINCT_TOKENS ? 0 : next + 1;
+            return services.tokens[next];
+        }
+    }
+
+    @Benchmark
+    public long old(Services services, Cursor cursor) {
+        String token = cursor.next(services);
+        Claims first = Jwts.parserBuilder().setSigningKey(newKey()).build().parseClaimsJws(token).getBody();
+        Claims second = Jwts.parserBuilder().setSigningKey(newKey()).build().parseClaimsJws(token).getBody();
+        return first.getSubject().length() + second.getExpiration().getTime();
+    }
+
+    @Benchmark
+    public Claims keyPerCall(Services services, Cursor cursor) {
+        return Jwts.parserBuilder().setSigningKey(newKey()).build().parseClaimsJws(cursor.next(services)).getBody();
+    }
+
+    @Benchmark
+    public JwtPrincipal parseOnce(Services services, Cursor cursor) {
+        return services.uncached.parse(cursor.next(services));
+    }
+
+    @Benchmark
+    public JwtPrincipal cached(Services services, Cursor cursor) {
+        return services.cached.parse(cursor.next(services));
+    }
+
+    private static Key newKey() {
+        return Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.wordapp.jmh;
+
+import com.example.wordapp.entity.SchedulerType;
+import com.example.wordapp.service.DefaultReviewScheduler;
+import com.example.wordapp.service.FsrsReviewScheduler;
+import com.example.wordapp.service.ReviewScheduler;
+import com.example.wordapp.service.ReviewSchedulers;
+import com.example.wordapp.service.ReviewState;
+import com.example.wordapp.service.Sm2ReviewScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次复习调度（{@link ReviewScheduler#review}）在各算法下的耗时。每次调用按预先生成的对错和间隔
+ * 连续复习同一个单词 {@link #REVIEWS} 次，与在线复习和离线模拟器一样复用一个 {@link ReviewState}；
+ * 加 {@code -prof gc} 可确认调度过程不分配对象（gc.alloc.rate.norm 接近 0）。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@Threads(1)
+@OperationsPerInvocation(ReviewSchedulerBenchmark.REVIEWS)
+public class ReviewSchedulerBenchmark {
+    static final int REVIEWS = 1024;
+
+    @Param({"DEFAULT", "SM2", "FSRS"})
+    public SchedulerType type;
+
+    private ReviewScheduler scheduler;
+    private final ReviewState state = new ReviewState();
+    private final boolean[] correct = new boolean[REVIEWS];
+    private final double[] elapsedDays = new double[REVIEWS];
+
+    @Setup
+    public void setUp() {
+        scheduler = new ReviewSchedulers(List.of(
+                new DefaultReviewScheduler(), new Sm2ReviewScheduler(), new FsrsReviewScheduler())).get(type);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < REVIEWS; i++) {
+            // 约八成答对；间隔 0~30 天，第一次复习传负数表示从未复习
+            correct[i] = random.nextInt(10) < 8;
+            elapsedDays[i] = i == 0 ? -1 : random.nextDouble() * 30;
+        }
+    }
+
+    @Benchmark
+    public long review() {
+        state.reset(0, 0.2, 0, 0, 0);
+        long intervals = 0;
+        for (int i = 0; i < REVIEWS; i++) {
+            scheduler.review(state, correct[i], elapsedDays[i]);
+            intervals += state.intervalMinutes;
+        }
+        return intervals;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.wordapp.jmh;
+
+import com.example.wordapp.service.WordLineParser;
+import com.example.wordapp.service.WordLineParserFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单词本单行解析：改动前基于正则的实现（{@link WordLineParserFixtures#legacyParse}）与 {@link WordLineParser}
+ * 在同一批生成的单词本行上的每行耗时。加 {@code -prof gc} 可同时看每行分配字节数（gc.alloc.rate.norm 除以行数）。
+ * <p>
+ * 导入时每个任务各用一个解析器，这里每个线程也各有一份单词本和解析器。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@Threads(1)
+@OperationsPerInvocation(WordLineParserBenchmark.LINES)
+public class WordLineParserBenchmark {
+    static final int LINES = 10_000;
+
+    private List<String> book;
+    private WordLineParser parser;
+
+    @Setup
+    public void setUp() {
+        book = WordLineParserFixtures.sampleLines(LINES, 42);
+        parser = new WordLineParser();
+    }
+
+    @Benchmark
+    public void regex(Blackhole blackhole) {
+        for (String line : book) {
+            blackhole.consume(WordLineParserFixtures.legacyParse(line));
+        }
+    }
+
+    @Benchmark
+    public void scanner(Blackhole blackhole) {
+        for (String line : book) {
+            blackhole.consume(parser.parse(line));
+        }
+    }
+}
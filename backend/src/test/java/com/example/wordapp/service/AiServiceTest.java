@@ -0,0 +1,159 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.dto.VocabAnalysisRequest;
+import com.example.wordapp.tools.AiStubServer;
+import com.example.wordapp.tools.AiStubServer.Reply;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 对着本地桩服务（{@link AiStubServer}）验证上游调用的重试、并发上限、熔断和整体超时。
+ */
+class AiServiceTest {
+    private static final VocabAnalysisRequest REQUEST = new VocabAnalysisRequest(3, 5, 60, "CET4", List.of());
+    private static final String FALLBACK_PREFIX = "AI 分析暂时不可用";
+
+    private AiStubServer stub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = AiStubServer.start(0, Reply::ok);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void retriesServerErrorsUntilSuccess() throws Exception {
+        stub.enqueue(Reply.status(503), Reply.status(503));
+
+        String analysis = service(8, 3, 5, 10_000).analyzeVocab(REQUEST).get(5, TimeUnit.SECONDS);
+
+        assertEquals(AiStubServer.CONTENT, analysis);
+        assertEquals(3, stub.requests());
+    }
+
+    @Test
+    void waitsForRetryAfterOnTooManyRequests() throws Exception {
+        stub.enqueue(Reply.status(429).retryAfter("1"));
+
+        long startedAt = System.nanoTime();
+        String analysis = service(8, 3, 5, 10_000).analyzeVocab(REQUEST).get(5, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        assertEquals(AiStubServer.CONTENT, analysis);
+        assertEquals(2, stub.requests());
+        // 退避起点只有 10ms，等满 1 秒说明用的是 Retry-After
+        assertTrue(elapsedMillis >= 1000, "retried after " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void fallsBackWhenRetriesAreExhausted() throws Exception {
+        stub.enqueue(Reply.status(503), Reply.status(429), Reply.status(503));
+
+        String analysis = service(8, 3, 5, 10_000).analyzeVocab(REQUEST).get(5, TimeUnit.SECONDS);
+
+        assertTrue(analysis.startsWith(FALLBACK_PREFIX), analysis);
+        assertEquals(3, stub.requests());
+    }
+
+    @Test
+    void doesNotRetryClientErrors() throws Exception {
+        stub.enqueue(Reply.status(400));
+
+        String analysis = service(8, 3, 5, 10_000).analyzeVocab(REQUEST).get(5, TimeUnit.SECONDS);
+
+        assertTrue(analysis.startsWith(FALLBACK_PREFIX), analysis);
+        assertEquals(1, stub.requests());
+    }
+
+    @Test
+    void rejectsCallsBeyondBulkhead() throws Exception {
+        AiService service = service(1, 1, 5, 10_000);
+        stub.enqueue(Reply.ok().delayed(500));
+
+        CompletableFuture<String> first = service.analyzeVocab(REQUEST);
+        CompletableFuture<String> second = service.analyzeVocab(REQUEST);
+
+        // 第二个请求不等上游，立即降级
+        assertTrue(second.isDone());
+        assertTrue(second.get().startsWith(FALLBACK_PREFIX));
+        assertEquals(AiStubServer.CONTENT, first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, stub.requests());
+        // 名额归还后可以再次调用
+        assertEquals(AiStubServer.CONTENT, service.analyzeVocab(REQUEST).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void opensBreakerAfterConsecutiveFailuresAndClosesAfterSuccessfulTrial() throws Exception {
+        AiService service = service(8, 1, 2, 10_000);
+        stub.enqueue(Reply.status(500), Reply.status(500));
+
+        service.analyzeVocab(REQUEST).get(5, TimeUnit.SECONDS);
+        service.analyzeVocab(REQUEST).get(5, TimeUnit.SECONDS);
+        String whileOpen = service.analyzeVocab(REQUEST).get(5, TimeUnit.SECONDS);
+
+        assertTrue(whileOpen.startsWith(FALLBACK_PREFIX));
+        assertEquals(2, stub.requests());
+
+        // 熔断 1 秒后半开：只放行一个试探调用，试探进行中的其它调用仍直接降级
+        Thread.sleep(1100);
+        stub.enqueue(Reply.ok().delayed(300));
+        CompletableFuture<String> trial = service.analyzeVocab(REQUEST);
+        CompletableFuture<String> duringTrial = service.analyzeVocab(REQUEST);
+        assertTrue(duringTrial.isDone());
+        assertTrue(duringTrial.get().startsWith(FALLBACK_PREFIX));
+        assertEquals(AiStubServer.CONTENT, trial.get(5, TimeUnit.SECONDS));
+
+        // 试探成功后关闭
+        assertEquals(AiStubServer.CONTENT, service.analyzeVocab(REQUEST).get(5, TimeUnit.SECONDS));
+        assertEquals(4, stub.requests());
+    }
+
+    @Test
+    void failedTrialReopensBreaker() throws Exception {
+        AiService service = service(8, 1, 1, 10_000);
+        stub.enqueue(Reply.status(500));
+        service.analyzeVocab(REQUEST).get(5, TimeUnit.SECONDS);
+
+        Thread.sleep(1100);
+        stub.enqueue(Reply.status(503));
+        String trial = service.analyzeVocab(REQUEST).get(5, TimeUnit.SECONDS);
+        String afterTrial = service.analyzeVocab(REQUEST).get(5, TimeUnit.SECONDS);
+
+        assertTrue(trial.startsWith(FALLBACK_PREFIX));
+        assertTrue(afterTrial.startsWith(FALLBACK_PREFIX));
+        assertEquals(2, stub.requests());
+    }
+
+    @Test
+    void fallsBackWhenOverallTimeoutExpires() throws Exception {
+        AiService service = service(8, 3, 5, 300);
+        stub.enqueue(Reply.ok().delayed(3000));
+
+        long startedAt = System.nanoTime();
+        String analysis = service.analyzeVocab(REQUEST).get(5, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        assertTrue(analysis.startsWith(FALLBACK_PREFIX), analysis);
+        assertTrue(elapsedMillis < 2000, "answered after " + elapsedMillis + "ms");
+        assertFalse(analysis.contains(AiStubServer.CONTENT));
+    }
+
+    private AiService service(int maxConcurrent, int maxAttempts, int failureThreshold, long totalTimeoutMillis) {
+        return new AiService(new ObjectMapper(), "stub-key", stub.baseUrl(), "stub-model",
+                1000, 5000, totalTimeoutMillis, maxConcurrent, maxAttempts, 10, 2000, failureThreshold, 1);
+    }
+}
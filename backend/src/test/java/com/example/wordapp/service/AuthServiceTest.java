@@ -0,0 +1,165 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.dto.AuthRequest;
+import com.example.wordapp.dto.AuthResponse;
+import com.example.wordapp.entity.User;
+import com.example.wordapp.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 登录放到 passwordHashExecutor 上执行：队列满返回 429、超时返回 503、超时后出队的任务不再做哈希，
+ * 以及低强度哈希登录成功后按当前强度重新哈希。
+ */
+class AuthServiceTest {
+    private static final AuthRequest LOGIN = new AuthRequest("alice", "secret-password");
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger authentications = new AtomicInteger();
+    private ThreadPoolTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsWith429WhenQueueIsFull() throws Exception {
+        AuthService service = service(blockingAuthentication(), executor(1, 0), 5_000);
+        CompletableFuture<AuthResponse> running = service.login(LOGIN);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> service.login(LOGIN));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, ex.getStatusCode());
+        release.countDown();
+        assertEquals("alice", running.get(5, TimeUnit.SECONDS).username());
+    }
+
+    @Test
+    void failsWith503WhenHashingOutlivesTimeout() {
+        AuthService service = service(blockingAuthentication(), executor(1, 1), 200);
+
+        CompletableFuture<AuthResponse> login = service.login(LOGIN);
+
+        assertStatus(HttpStatus.SERVICE_UNAVAILABLE, login);
+    }
+
+    @Test
+    void skipsQueuedHashOnceDeadlineHasPassed() throws Exception {
+        AuthService service = service(blockingAuthentication(), executor(1, 1), 200);
+        CompletableFuture<AuthResponse> running = service.login(LOGIN);
+        CompletableFuture<AuthResponse> queued = service.login(LOGIN);
+
+        assertStatus(HttpStatus.SERVICE_UNAVAILABLE, queued);
+        release.countDown();
+        assertStatus(HttpStatus.SERVICE_UNAVAILABLE, running);
+        // 等线程把排队的任务取出来：它已经超时，不应再调用认证
+        executor.shutdown();
+        assertTrue(executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, authentications.get());
+    }
+
+    @Test
+    void loginRehashesPasswordStoredWithWeakerStrength() throws Exception {
+        User user = User.builder()
+                .id(1L)
+                .username("alice")
+                .password(new BCryptPasswordEncoder(4).encode(LOGIN.password()))
+                .tokenVersion(0)
+                .build();
+        UserRepository userRepository = mock(UserRepository.class);
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(username -> user);
+        provider.setPasswordEncoder(new BCryptPasswordEncoder(5));
+        provider.setUserDetailsPasswordService(new PasswordUpgradeService(userRepository, inlineTransactions()));
+        AuthService service = service(new ProviderManager(provider), executor(1, 1), 5_000);
+
+        AuthResponse response = service.login(LOGIN).get(5, TimeUnit.SECONDS);
+
+        assertEquals("alice", response.username());
+        verify(userRepository).updatePassword(eq("alice"), startsWith("$2a$05$"));
+        assertTrue(user.getPassword().startsWith("$2a$05$"));
+    }
+
+    private AuthenticationManager blockingAuthentication() {
+        return authentication -> {
+            authentications.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            User user = User.builder().id(1L).username(authentication.getName()).tokenVersion(0).build();
+            return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        };
+    }
+
+    private ThreadPoolTaskExecutor executor(int threads, int queueCapacity) {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hash-test-");
+        executor.initialize();
+        return executor;
+    }
+
+    private static AuthService service(AuthenticationManager authenticationManager, ThreadPoolTaskExecutor executor,
+                                       long timeoutMillis) {
+        RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+        when(refreshTokenService.issue(any())).thenReturn("refresh-token");
+        UserService userService = mock(UserService.class);
+        when(userService.findByUsername(anyString())).thenAnswer(inv ->
+                User.builder().id(1L).username(inv.getArgument(0)).tokenVersion(0).build());
+        return new AuthService(authenticationManager,
+                new JwtService("auth-service-test-secret-0123456789abcdef", "k1", "", 60, 100),
+                userService, mock(TokenVersionService.class), refreshTokenService, executor, timeoutMillis);
+    }
+
+    private static void assertStatus(HttpStatus expected, CompletableFuture<AuthResponse> future) {
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        ResponseStatusException cause = assertInstanceOf(ResponseStatusException.class, ex.getCause());
+        assertEquals(expected, cause.getStatusCode());
+    }
+
+    private static TransactionTemplate inlineTransactions() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(inv -> {
+            inv.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        return transactionTemplate;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.dto.WordPayload;
+import com.example.wordapp.entity.User;
+import com.example.wordapp.entity.Word;
+import com.example.wordapp.repository.ReviewRecordRepository;
+import com.example.wordapp.repository.StudyRecordRepository;
+import com.example.wordapp.repository.StudySessionRepository;
+import com.example.wordapp.repository.UserRepository;
+import com.example.wordapp.repository.WordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 同一个请求里经过 StudyService、WordService 多次取当前用户，只查一次用户表。
+ */
+class CurrentUserResolverTest {
+    private static final String USERNAME = "alice";
+
+    private UserRepository userRepository;
+    private StudyService studyService;
+    private WordService wordService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername(USERNAME))
+                .thenReturn(Optional.of(User.builder().id(1L).username(USERNAME).tokenVersion(0).build()));
+        WordRepository wordRepository = mock(WordRepository.class);
+        when(wordRepository.save(any(Word.class))).thenAnswer(inv -> inv.getArgument(0));
+        StudyActivityService studyActivityService = mock(StudyActivityService.class);
+        when(studyActivityService.summarize(any(), any()))
+                .thenReturn(new StudyActivityService.ActivitySummary(0, 0, 0, new int[24]));
+        CurrentUserResolver resolver = new CurrentUserResolver(userRepository);
+
+        studyService = new StudyService(
+                userRepository,
+                mock(StudyRecordRepository.class),
+                mock(ReviewRecordRepository.class),
+                wordRepository,
+                mock(StudySessionRepository.class),
+                mock(TransactionTemplate.class),
+                mock(DueQueueService.class),
+                mock(StudyStatsService.class),
+                studyActivityService,
+                resolver);
+        wordService = new WordService(
+                wordRepository,
+                null,
+                userRepository,
+                mock(ReviewRecordRepository.class),
+                mock(WordSearchIndex.class),
+                null,
+                mock(TransactionTemplate.class),
+                new ReviewSchedulers(List.of(new DefaultReviewScheduler())),
+                mock(DueQueueService.class),
+                resolver,
+                mock(WordCacheUpdater.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void queriesUserOncePerRequest() {
+        inRequest(() -> {
+            studyService.getScheduler(USERNAME);
+            studyService.getTodayStudy(USERNAME, 20, 30, null);
+            wordService.createWord(USERNAME, new WordPayload("new", "新词", null, null, null, null, null, null));
+            studyService.getScheduler(USERNAME);
+        });
+
+        verify(userRepository, times(1)).findByUsername(USERNAME);
+    }
+
+    @Test
+    void queriesAgainInNextRequest() {
+        inRequest(() -> studyService.getScheduler(USERNAME));
+        inRequest(() -> studyService.getScheduler(USERNAME));
+
+        verify(userRepository, times(2)).findByUsername(USERNAME);
+    }
+
+    // 异步导入线程等没有请求上下文的调用不做记忆
+    @Test
+    void queriesEveryTimeWithoutRequest() {
+        studyService.getScheduler(USERNAME);
+        studyService.getScheduler(USERNAME);
+
+        verify(userRepository, times(2)).findByUsername(USERNAME);
+    }
+
+    private static void inRequest(Runnable request) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            request.run();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+}
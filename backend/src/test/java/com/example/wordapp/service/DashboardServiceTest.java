@@ -0,0 +1,99 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.entity.User;
+import com.example.wordapp.repository.WordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 首页聚合超时后，排队中的查询不再执行，线程池满时退回请求线程的查询也不会越过超时。
+ */
+class DashboardServiceTest {
+    private static final String USERNAME = "alice";
+    private static final User USER = User.builder().id(1L).username(USERNAME).build();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ThreadPoolTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void timeoutCancelsQueuedSections() throws Exception {
+        StudyService studyService = mock(StudyService.class);
+        StudyStatsService studyStatsService = mock(StudyStatsService.class);
+        WordRepository wordRepository = mock(WordRepository.class);
+        when(studyService.findUser(USERNAME)).thenReturn(USER);
+        // 唯一的线程卡在第一个查询上，第二个查询进入队列，其余由 CallerRunsPolicy 在请求线程执行
+        when(studyService.countTodayReviews(USER)).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 3L;
+        });
+        DashboardService service = new DashboardService(studyService, studyStatsService, mock(DueQueueService.class),
+                wordRepository, executor(1, 1));
+        ReflectionTestUtils.setField(service, "timeoutMs", 200L);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> service.getDashboard(USERNAME, 20, 50, null));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatusCode());
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS));
+        verify(studyStatsService, never()).get(anyLong());
+        verify(studyService, never()).selectTodayWords(any(), anyInt(), anyInt(), any(), anyLong());
+    }
+
+    @Test
+    void sectionsStartedAfterDeadlineAreSkipped() {
+        StudyService studyService = mock(StudyService.class);
+        WordRepository wordRepository = mock(WordRepository.class);
+        // 查用户就用完了全部时间，之后的查询不应再执行
+        when(studyService.findUser(USERNAME)).thenAnswer(inv -> {
+            Thread.sleep(300);
+            return USER;
+        });
+        DashboardService service = new DashboardService(studyService, mock(StudyStatsService.class),
+                mock(DueQueueService.class), wordRepository, executor(1, 0));
+        ReflectionTestUtils.setField(service, "timeoutMs", 200L);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> service.getDashboard(USERNAME, 20, 50, null));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatusCode());
+        verify(wordRepository, never()).countByOwnerUsername(USERNAME);
+    }
+
+    private ThreadPoolTaskExecutor executor(int threads, int queueCapacity) {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("dashboard-test-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.entity.RefreshToken;
+import com.example.wordapp.entity.User;
+import com.example.wordapp.repository.RefreshTokenRepository;
+import com.example.wordapp.util.TimeUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 刷新令牌轮换：正常换发、并发刷新、宽限期内外的重复使用、吊销/过期、退出登录和家族绝对期限。
+ * 仓库用内存里的行模拟，条件更新的语义与 {@link RefreshTokenRepository} 上的 JPQL 一致。
+ */
+class RefreshTokenServiceTest {
+    private static final long TTL_DAYS = 30;
+    private static final long GRACE_SECONDS = 10;
+    private static final long FAMILY_MAX_DAYS = 90;
+    private static final User USER = User.builder().id(7L).username("alice").build();
+
+    private final List<RefreshToken> rows = new ArrayList<>();
+    private volatile CyclicBarrier readBarrier;
+    private RefreshTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RefreshTokenService(repository(), inlineTransactions(), TTL_DAYS, GRACE_SECONDS, FAMILY_MAX_DAYS);
+    }
+
+    @Test
+    void rotateIssuesSuccessorInSameFamilyAndMarksOldUsed() {
+        String first = service.issue(USER);
+
+        RefreshTokenService.Rotated rotated = service.rotate(first);
+
+        assertEquals(USER.getId(), rotated.userId());
+        assertEquals(USER.getUsername(), rotated.username());
+        assertNotEquals(first, rotated.refreshToken());
+        assertEquals(2, rows.size());
+        RefreshToken old = rows.get(0);
+        RefreshToken successor = rows.get(1);
+        assertNotNull(old.getUsedAt());
+        assertNull(successor.getUsedAt());
+        assertEquals(old.getFamilyId(), successor.getFamilyId());
+        // 新令牌可以继续换发
+        assertEquals(USER.getUsername(), service.rotate(rotated.refreshToken()).username());
+    }
+
+    @Test
+    void concurrentRefreshOfSameTokenIssuesOnlyOneSuccessor() throws Exception {
+        String first = service.issue(USER);
+        // 两个请求都在对方标记之前读到了未使用的令牌，由 markUsed 的条件更新决定谁赢
+        readBarrier = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Callable<Boolean> refresh = () -> {
+                try {
+                    service.rotate(first);
+                    return true;
+                } catch (ResponseStatusException ex) {
+                    assertEquals(HttpStatus.UNAUTHORIZED, ex.getStatusCode());
+                    return false;
+                }
+            };
+            Future<Boolean> a = executor.submit(refresh);
+            Future<Boolean> b = executor.submit(refresh);
+            boolean aWon = a.get(5, TimeUnit.SECONDS);
+            boolean bWon = b.get(5, TimeUnit.SECONDS);
+
+            assertTrue(aWon ^ bWon, "exactly one refresh should succeed");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, rows.size());
+        // 并发不是盗用，家族不能被吊销
+        assertTrue(rows.stream().allMatch(row -> row.getRevokedAt() == null));
+    }
+
+    @Test
+    void reuseWithinGraceWindowIsRejectedWithoutRevokingFamily() {
+        String first = service.issue(USER);
+        String second = service.rotate(first).refreshToken();
+
+        assertUnauthorized(first);
+
+        assertTrue(rows.stream().allMatch(row -> row.getRevokedAt() == null));
+        assertEquals(USER.getUsername(), service.rotate(second).username());
+    }
+
+    @Test
+    void reuseAfterGraceWindowRevokesWholeFamily() {
+        String first = service.issue(USER);
+        String second = service.rotate(first).refreshToken();
+        String other = service.issue(USER);
+        rows.get(0).setUsedAt(TimeUtil.nowDateTime().minusSeconds(GRACE_SECONDS + 1));
+
+        assertUnauthorized(first);
+
+        String family = rows.get(0).getFamilyId();
+        assertTrue(rows.stream().filter(row -> row.getFamilyId().equals(family)).allMatch(row -> row.getRevokedAt() != null));
+        assertUnauthorized(second);
+        // 另一次登录开启的家族不受影响
+        assertEquals(USER.getUsername(), service.rotate(other).username());
+    }
+
+    @Test
+    void revokedTokenIsRejected() {
+        String first = service.issue(USER);
+        rows.get(0).setRevokedAt(TimeUtil.nowDateTime());
+
+        assertUnauthorized(first);
+        assertEquals(1, rows.size());
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String first = service.issue(USER);
+        rows.get(0).setExpiresAt(TimeUtil.nowDateTime().minusSeconds(1));
+
+        assertUnauthorized(first);
+        assertEquals(1, rows.size());
+        assertNull(rows.get(0).getUsedAt());
+    }
+
+    @Test
+    void logoutRevokesAllFamiliesOfUser() {
+        String first = service.issue(USER);
+        String second = service.issue(USER);
+
+        service.revokeAll(USER.getUsername());
+
+        assertUnauthorized(first);
+        assertUnauthorized(second);
+        assertEquals(2, rows.size());
+    }
+
+    @Test
+    void successorsKeepFamilyExpiryAndCannotOutliveIt() {
+        String first = service.issue(USER);
+        LocalDateTime familyExpiresAt = rows.get(0).getFamilyExpiresAt();
+        assertNotNull(familyExpiresAt);
+
+        // 离家族到期只剩一天时换发，新令牌的有效期截到家族期限，而不是再给 ttl-days
+        LocalDateTime soon = TimeUtil.nowDateTime().plusDays(1);
+        rows.get(0).setFamilyExpiresAt(soon);
+        service.rotate(first);
+
+        RefreshToken successor = rows.get(1);
+        assertEquals(soon, successor.getFamilyExpiresAt());
+        assertEquals(soon, successor.getExpiresAt());
+    }
+
+    @Test
+    void rotationPastFamilyExpiryIsRejected() {
+        String first = service.issue(USER);
+        rows.get(0).setFamilyExpiresAt(TimeUtil.nowDateTime().minusSeconds(1));
+
+        assertUnauthorized(first);
+        assertEquals(1, rows.size());
+        assertNull(rows.get(0).getUsedAt());
+    }
+
+    @Test
+    void legacyTokenWithoutFamilyExpiryGetsOneFromIssueTime() {
+        String first = service.issue(USER);
+        RefreshToken legacy = rows.get(0);
+        legacy.setFamilyExpiresAt(null);
+        legacy.setCreatedAt(TimeUtil.nowDateTime().minusDays(FAMILY_MAX_DAYS));
+
+        assertUnauthorized(first);
+
+        legacy.setCreatedAt(TimeUtil.nowDateTime().minusDays(1));
+        service.rotate(first);
+        assertEquals(legacy.getCreatedAt().plusDays(FAMILY_MAX_DAYS), rows.get(1).getFamilyExpiresAt());
+    }
+
+    private void assertUnauthorized(String rawToken) {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> service.rotate(rawToken));
+        assertEquals(HttpStatus.UNAUTHORIZED, ex.getStatusCode());
+    }
+
+    private RefreshTokenRepository repository() {
+        RefreshTokenRepository repository = mock(RefreshTokenRepository.class);
+        when(repository.save(any())).thenAnswer(inv -> {
+            RefreshToken token = inv.getArgument(0);
+            synchronized (rows) {
+                token.setId((long) rows.size() + 1);
+                rows.add(token);
+            }
+            return token;
+        });
+        when(repository.findByTokenHash(anyString())).thenAnswer(inv -> {
+            RefreshToken found;
+            synchronized (rows) {
+                found = rows.stream().filter(row -> row.getTokenHash().equals(inv.getArgument(0)))
+                        .findFirst().map(RefreshTokenServiceTest::copy).orElse(null);
+            }
+            CyclicBarrier barrier = readBarrier;
+            if (barrier != null) {
+                barrier.await(5, TimeUnit.SECONDS);
+            }
+            return Optional.ofNullable(found);
+        });
+        when(repository.markUsed(anyLong(), any())).thenAnswer(inv -> update(
+                row -> row.getId().equals(inv.getArgument(0)) && row.getUsedAt() == null && row.getRevokedAt() == null,
+                row -> row.setUsedAt(inv.getArgument(1))));
+        when(repository.revokeFamily(anyString(), any())).thenAnswer(inv -> update(
+                row -> row.getFamilyId().equals(inv.getArgument(0)) && row.getRevokedAt() == null,
+                row -> row.setRevokedAt(inv.getArgument(1))));
+        when(repository.revokeByUsername(anyString(), any())).thenAnswer(inv -> update(
+                row -> row.getUsername().equals(inv.getArgument(0)) && row.getRevokedAt() == null,
+                row -> row.setRevokedAt(inv.getArgument(1))));
+        return repository;
+    }
+
+    private int update(Predicate<RefreshToken> where, Consumer<RefreshToken> set) {
+        synchronized (rows) {
+            List<RefreshToken> matched = rows.stream().filter(where).toList();
+            matched.forEach(set);
+            return matched.size();
+        }
+    }
+
+    // 查询返回的是读取那一刻的快照，和从数据库读出的实体一样不会看到之后的更新
+    private static RefreshToken copy(RefreshToken row) {
+        return RefreshToken.builder()
+                .id(row.getId())
+                .tokenHash(row.getTokenHash())
+                .familyId(row.getFamilyId())
+                .userId(row.getUserId())
+                .username(row.getUsername())
+                .expiresAt(row.getExpiresAt())
+                .familyExpiresAt(row.getFamilyExpiresAt())
+                .usedAt(row.getUsedAt())
+                .revokedAt(row.getRevokedAt())
+                .createdAt(row.getCreatedAt())
+                .build();
+    }
+
+    private static TransactionTemplate inlineTransactions() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        doAnswer(inv -> {
+            inv.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        return transactionTemplate;
+    }
+}
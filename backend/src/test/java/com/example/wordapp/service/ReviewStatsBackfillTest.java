@@ -0,0 +1,105 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.repository.WordJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * 回填只在一个节点上执行一次：完成标记和 Redis 锁。
+ */
+class ReviewStatsBackfillTest {
+    private static final String DONE_KEY = "wordapp:backfill:review-stats:done";
+
+    private WordJdbcRepository wordJdbcRepository;
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> valueOps;
+    private ReviewStatsBackfill backfill;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        wordJdbcRepository = mock(WordJdbcRepository.class);
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(redisTemplate.hasKey(DONE_KEY)).thenReturn(false);
+        when(valueOps.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        backfill = new ReviewStatsBackfill(wordJdbcRepository, redisTemplate);
+        ReflectionTestUtils.setField(backfill, "chunkSize", 5);
+    }
+
+    @Test
+    void backfillsInChunksAndMarksDone() {
+        when(wordJdbcRepository.findReviewStatsBackfillRange()).thenReturn(new long[]{1, 12});
+
+        backfill.backfill();
+
+        verify(wordJdbcRepository).backfillReviewStats(1, 5);
+        verify(wordJdbcRepository).backfillReviewStats(6, 10);
+        verify(wordJdbcRepository).backfillReviewStats(11, 12);
+        verify(valueOps).set(DONE_KEY, "1");
+        // 释放锁
+        verify(redisTemplate, times(4)).execute(any(), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void skipsWhenAlreadyDone() {
+        when(redisTemplate.hasKey(DONE_KEY)).thenReturn(true);
+
+        backfill.backfill();
+
+        verifyNoInteractions(wordJdbcRepository);
+    }
+
+    @Test
+    void skipsWhenAnotherNodeHoldsLock() {
+        when(valueOps.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+
+        backfill.backfill();
+
+        verifyNoInteractions(wordJdbcRepository);
+        verify(valueOps, never()).set(eq(DONE_KEY), anyString());
+    }
+
+    @Test
+    void failureLeavesFlagUnsetSoNextStartupResumes() {
+        when(wordJdbcRepository.findReviewStatsBackfillRange()).thenReturn(new long[]{1, 12});
+        when(wordJdbcRepository.backfillReviewStats(6, 10)).thenThrow(new QueryTimeoutException("lock wait timeout"));
+
+        backfill.backfill();
+
+        verify(wordJdbcRepository, never()).backfillReviewStats(11, 12);
+        verify(valueOps, never()).set(eq(DONE_KEY), anyString());
+        // 续期一次（第一批之后）+ 释放锁
+        verify(redisTemplate, times(2)).execute(any(), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void runsWithoutRedis() {
+        when(redisTemplate.hasKey(DONE_KEY)).thenThrow(new QueryTimeoutException("redis down"));
+        when(valueOps.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenThrow(new QueryTimeoutException("redis down"));
+        when(wordJdbcRepository.findReviewStatsBackfillRange()).thenReturn(new long[]{1, 3});
+
+        backfill.backfill();
+
+        verify(wordJdbcRepository).backfillReviewStats(1, 3);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.wordapp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.regex.Pattern;
+
+/**
+ * {@link WordLineParser} 的测试夹具：改动前基于正则的实现（{@link #legacyParse}，按原样保留作为对照），
+ * 以及生成单词本行的 {@link #sampleLines}。等价性测试和 JMH 基准共用。
+ */
+public final class WordLineParserFixtures {
+    private static final String[] TERMS = {"abandon", "song", "take off", "well-known", "e-mail", "a.m.", "façade"};
+    private static final String[] TEXTS = {"放弃；抛弃", "n. 歌曲", "起飞：脱下", "著名的", "v. 发送邮件 - 邮件",
+            "He abandoned the plan.；他放弃了计划", "词根：bandon", "desert、quit", "CET4", "考研|高考", ""};
+    private static final String[] DELIMITERS = {"\t", "\t", "\t", "｜", "|", " - ", "-", " – ", "—", ":", "：", " ： "};
+    private static final String[] PADDING = {"", "", " ", "  ", "\u000B", " \t "};
+
+    private WordLineParserFixtures() {
+    }
+
+    /**
+     * 生成形如真实单词本的行（已 trim，与导入时传给解析器的一致）：带或不带序号列，分隔符为 TAB、全角竖线、
+     * 竖线或 - : 等退回分隔符，字段数 1~9，分隔符两侧随机加空白，内容里夹杂分隔符字符。
+     */
+    public static List<String> sampleLines(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<String> lines = new ArrayList<>(count);
+        StringBuilder line = new StringBuilder();
+        while (lines.size() < count) {
+            line.setLength(0);
+            String delimiter = DELIMITERS[random.nextInt(DELIMITERS.length)];
+            if (random.nextInt(3) == 0) {
+                line.append(random.nextInt(10_000)).append(delimiter);
+            }
+            line.append(TERMS[random.nextInt(TERMS.length)]);
+            int fields = random.nextInt(9);
+            for (int i = 0; i < fields; i++) {
+                line.append(PADDING[random.nextInt(PADDING.length)])
+                        .append(delimiter)
+                        .append(PADDING[random.nextInt(PADDING.length)])
+                        .append(TEXTS[random.nextInt(TEXTS.length)]);
+            }
+            String trimmed = line.toString().trim();
+            if (!trimmed.isEmpty()) {
+                lines.add(trimmed);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * 改动前 WordService.parseLine 的实现，原样保留作为对照。
+     */
+    public static WordLineParser.ParsedWord legacyParse(String line) {
+        String[] parts = splitByDelimiters(line, 7, "\t", "｜", "|");
+        if (parts.length == 1) {
+            parts = line.split("\\s*[-–—:：]\\s*", 7);
+        }
+        // 兼容带序号的单词本（如：4518<TAB>song<TAB>...）
+        if (parts.length >= 2 && parts[0].trim().matches("\\d+")) {
+            parts = Arrays.copyOfRange(parts, 1, parts.length);
+        }
+        String term = parts.length > 0 ? parts[0].trim() : "";
+        String definition = parts.length > 1 ? parts[1].trim() : "";
+        String example = "";
+        String meanings = "";
+        String examples = "";
+        String wordRoot = "";
+        String similarWords = "";
+        String examTag = "";
+        if (parts.length <= 3) {
+            example = parts.length > 2 ? parts[2].trim() : "";
+        } else {
+            meanings = parts.length > 2 ? parts[2].trim() : "";
+            examples = parts.length > 3 ? parts[3].trim() : "";
+            wordRoot = parts.length > 4 ? parts[4].trim() : "";
+            similarWords = parts.length > 5 ? parts[5].trim() : "";
+            examTag = parts.length > 6 ? parts[6].trim() : "";
+            if (!examples.isBlank()) {
+                String[] exampleParts = examples.split("\\r?\\n|；|;|、");
+                if (exampleParts.length > 0) {
+                    example = exampleParts[0].trim();
+                }
+            }
+        }
+        if (term.isEmpty()) {
+            return null;
+        }
+        return new WordLineParser.ParsedWord(term, definition, example, meanings, examples, wordRoot, similarWords, examTag);
+    }
+
+    private static String[] splitByDelimiters(String line, int limit, String... delimiters) {
+        for (String delimiter : delimiters) {
+            if (line.contains(delimiter)) {
+                return line.split("\\s*" + Pattern.quote(delimiter) + "\\s*", limit);
+            }
+        }
+        return new String[]{line};
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.wordapp.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * {@link WordLineParser} 必须与改动前基于正则的实现（{@link WordLineParserFixtures#legacyParse}）逐字段一致。
+ */
+class WordLineParserTest {
+
+    static Stream<Arguments> wordBookLines() {
+        return Stream.of(
+                // 常见单词本格式
+                "abandon\t放弃；抛弃",
+                "4518\tsong\tn. 歌曲\t歌曲；曲子\tShe sang a song.；他唱了一首歌\tsong-\tsing、singer\tCET4",
+                "abandon｜v. 放弃｜He abandoned the plan.",
+                "abandon | v. 放弃 | 放弃 | He abandoned it.;She gave up | bandon | desert | 考研",
+                "abandon - 放弃",
+                "abandon：放弃：He abandoned it.",
+                "abandon — 放弃 – 抛弃",
+                // 分隔符优先级：有 TAB 时竖线和短横线都是内容
+                "well-known\t著名的|有名的\te-mail: 邮件",
+                "take off｜起飞|脱下｜a - b",
+                // 序号列
+                "12 - abandon - 放弃",
+                "0012\tabandon",
+                "12",
+                "12\t",
+                " 12 \t abandon",
+                // 超过 7 段时多余内容留在最后一段
+                "a\tb\tc\td\te\tf\tg\th\ti",
+                "1\ta\tb\tc\td\te\tf\tg\th",
+                // 空字段、只有分隔符
+                "\tabandon",
+                "abandon\t\t\t\t",
+                "-",
+                "|",
+                "abandon\t放弃\t\t\t",
+                // 分隔符两侧的各种空白
+                "abandon \u000B\t \u000B放弃",
+                "abandon  ｜  放弃  ｜  例句",
+                // examples 的第一个例句
+                "a\tb\tc\t；第二句",
+                "a\tb\tc\t第一句、第二句",
+                "a\tb\tc\t第一句;第二句；第三句",
+                // 没有分隔符
+                "abandon",
+                "a.m.")
+                .map(Arguments::of);
+    }
+
+    @ParameterizedTest
+    @MethodSource("wordBookLines")
+    void matchesLegacyParser(String line) {
+        assertEquals(WordLineParserFixtures.legacyParse(line), new WordLineParser().parse(line), line);
+    }
+
+    @Test
+    void matchesLegacyParserOnGeneratedBook() {
+        WordLineParser parser = new WordLineParser();
+        List<String> lines = WordLineParserFixtures.sampleLines(20_000, 7);
+        for (String line : lines) {
+            assertEquals(WordLineParserFixtures.legacyParse(line), parser.parse(line), line);
+        }
+    }
+
+    @Test
+    void dropsIndexColumnAndTakesFirstExample() {
+        WordLineParser.ParsedWord parsed = new WordLineParser()
+                .parse("4518\tsong\tn. 歌曲\t歌曲\tShe sang.；他唱歌\tsong-\tsing");
+
+        assertEquals(new WordLineParser.ParsedWord("song", "n. 歌曲", "She sang.", "歌曲", "She sang.；他唱歌",
+                "song-", "sing", ""), parsed);
+    }
+
+    @Test
+    void blankTermIsSkipped() {
+        assertNull(new WordLineParser().parse("\t放弃"));
+    }
+}
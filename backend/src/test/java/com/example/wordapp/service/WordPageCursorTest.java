@@ -0,0 +1,77 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.dto.WordPageResponse;
+import com.example.wordapp.entity.Word;
+import com.example.wordapp.repository.WordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * keyset 分页游标：updatedAt 为空的旧数据排在最后，游标停在它们上面时按 id 继续翻页。
+ */
+class WordPageCursorTest {
+    private static final String USERNAME = "alice";
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2024, 3, 1, 8, 30, 15);
+
+    private WordRepository wordRepository;
+    private WordService wordService;
+
+    @BeforeEach
+    void setUp() {
+        wordRepository = mock(WordRepository.class);
+        wordService = new WordService(wordRepository, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    @Test
+    void cursorOnDatedWordContinuesFromItsPosition() {
+        when(wordRepository.findFirstPage(eq(USERNAME), any()))
+                .thenReturn(List.of(word(9L, UPDATED_AT.plusMinutes(1)), word(8L, UPDATED_AT), word(7L, null)));
+
+        WordPageResponse first = wordService.listWordPage(USERNAME, null, 2);
+        wordService.listWordPage(USERNAME, first.nextCursor(), 2);
+
+        verify(wordRepository).findPageAfter(eq(USERNAME), eq(UPDATED_AT), eq(8L), any());
+    }
+
+    @Test
+    void cursorOnUndatedWordPagesByIdAmongUndatedWords() {
+        when(wordRepository.findFirstPage(eq(USERNAME), any()))
+                .thenReturn(List.of(word(9L, UPDATED_AT), word(5L, null), word(3L, null)));
+        when(wordRepository.findUndatedPageAfter(eq(USERNAME), eq(5L), any())).thenReturn(List.of(word(3L, null)));
+
+        WordPageResponse first = wordService.listWordPage(USERNAME, null, 2);
+        WordPageResponse second = wordService.listWordPage(USERNAME, first.nextCursor(), 2);
+
+        assertEquals(List.of(3L), second.items().stream().map(Word::getId).toList());
+        assertNull(second.nextCursor());
+        verify(wordRepository, never()).findPageAfter(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> wordService.listWordPage(USERNAME, "bm90LWEtY3Vyc29y", 2));
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    private static Word word(Long id, LocalDateTime updatedAt) {
+        return Word.builder().id(id).term("word" + id).updatedAt(updatedAt).build();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.entity.Word;
+import com.example.wordapp.repository.WordRepository;
+import com.example.wordapp.repository.WordSearchRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 索引重建期间（查库已返回旧数据、尚未装入）发生的写操作不能丢。
+ */
+class WordSearchIndexTest {
+    private static final String USERNAME = "alice";
+
+    private final CountDownLatch loading = new CountDownLatch(1);
+    private final CompletableFuture<List<WordSearchRow>> rows = new CompletableFuture<>();
+    private WordRepository wordRepository;
+    private WordSearchIndex index;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        wordRepository = mock(WordRepository.class);
+        // 查库在另一个线程里卡住，直到测试放行
+        when(wordRepository.findSearchRows(USERNAME)).thenAnswer(inv -> {
+            loading.countDown();
+            return rows.join();
+        });
+        index = new WordSearchIndex(wordRepository, 64, 10);
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void writesDuringRebuildAreReplayedOverLoadedRows() throws Exception {
+        Future<List<Long>> first = executor.submit(() -> index.search(USERNAME, "app", 10, true));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // 查库读到的是写入前的数据：1 还叫 apple，apply 尚未删除，apparent 尚未创建
+        index.onSaved(USERNAME, word(1L, "appetite"));
+        index.onDeleted(USERNAME, 2L);
+        index.onSaved(USERNAME, word(3L, "apparent"));
+        rows.complete(List.of(row(1L, "apple"), row(2L, "apply")));
+
+        assertEquals(List.of(3L, 1L), first.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1L), index.search(USERNAME, "appet", 10, true));
+        assertTrue(index.search(USERNAME, "apple", 10, true).isEmpty());
+    }
+
+    @Test
+    void concurrentSearchesShareOneLoad() throws Exception {
+        Future<List<Long>> first = executor.submit(() -> index.search(USERNAME, "app", 10, true));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Future<List<Long>> second = executor.submit(() -> index.search(USERNAME, "apple", 10, true));
+
+        rows.complete(List.of(row(1L, "apple")));
+
+        assertEquals(List.of(1L), first.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1L), second.get(5, TimeUnit.SECONDS));
+        verify(wordRepository, times(1)).findSearchRows(USERNAME);
+    }
+
+    @Test
+    void failedLoadIsNotCached() throws Exception {
+        Future<List<Long>> first = executor.submit(() -> index.search(USERNAME, "app", 10, true));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        rows.completeExceptionally(new IllegalStateException("database down"));
+
+        assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+
+        doReturn(List.of(row(1L, "apple"))).when(wordRepository).findSearchRows(USERNAME);
+        assertEquals(List.of(1L), index.search(USERNAME, "app", 10, true));
+    }
+
+    private static Word word(Long id, String term) {
+        return Word.builder().id(id).term(term).build();
+    }
+
+    private static WordSearchRow row(Long id, String term) {
+        return new WordSearchRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getTerm() {
+                return term;
+            }
+
+            @Override
+            public String getDefinition() {
+                return null;
+            }
+
+            @Override
+            public String getMeanings() {
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,512 @@
+package com.example.wordapp.service;
+
+import com.example.wordapp.config.CacheLoadCoordinator;
+import com.example.wordapp.config.TwoLevelCacheManager;
+import com.example.wordapp.dto.BatchReviewItem;
+import com.example.wordapp.dto.ReviewRequest;
+import com.example.wordapp.dto.StudyOverviewResponse;
+import com.example.wordapp.dto.StudyStatsResponse;
+import com.example.wordapp.dto.WordPageResponse;
+import com.example.wordapp.dto.WordPayload;
+import com.example.wordapp.entity.ReviewRecord;
+import com.example.wordapp.entity.User;
+import com.example.wordapp.entity.Word;
+import com.example.wordapp.repository.ReviewRecordJdbcRepository;
+import com.example.wordapp.repository.ReviewRecordRepository;
+import com.example.wordapp.repository.WordJdbcRepository;
+import com.example.wordapp.repository.WordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 单词写操作后被就地修补的缓存，必须与立即重新查库得到的结果一致。
+ * 数据库用内存中的 {@link WordStore} 模拟，仓库查询按对应 JPQL 的过滤和排序从中计算，每次返回新的实体副本。
+ */
+class WordServiceCacheConsistencyTest {
+    private static final String USERNAME = "alice";
+    private static final int SEED_WORDS = 60;
+    private static final String[] CACHE_NAMES = {"wordListV2", "wordPageV1", "incorrectWordsV2", "studyStatsV2", "studyOverviewV1"};
+
+    private WordStore store;
+    private ConcurrentMapCacheManager cacheManager;
+    private WordService wordService;
+    private WordJdbcRepository wordJdbcRepository;
+
+    @BeforeEach
+    void setUp() {
+        store = new WordStore(User.builder().id(1L).username(USERNAME).tokenVersion(0).build());
+        for (int i = 0; i < SEED_WORDS; i++) {
+            store.insert(Word.builder().term("word" + i).definition("def" + i).familiarity(0).memoryStrength(0.2)
+                    .reviewCount(0).lapseCount(0).build());
+        }
+        // 种一些答错记录，错词列表非空
+        for (long id = 1; id <= 5; id++) {
+            store.addRecord(id, false, null);
+        }
+
+        cacheManager = new ConcurrentMapCacheManager(CACHE_NAMES);
+        wordJdbcRepository = mock(WordJdbcRepository.class);
+        wordService = wordService(cacheManager, lockingRedis(List.of()));
+        primeCaches();
+    }
+
+    @Test
+    void createMatchesFreshRead() {
+        wordService.createWord(USERNAME, new WordPayload("new", "新词", null, null, null, null, null, null));
+
+        assertCachesMatchDatabase(true);
+        assertNull(cacheManager.getCache("studyOverviewV1").get(WordCacheUpdater.dailyKey(USERNAME)));
+    }
+
+    @Test
+    void updateMatchesFreshRead() {
+        wordService.updateWord(USERNAME, 3L, new WordPayload("renamed", "改过的释义", null, null, null, null, null, null));
+
+        assertCachesMatchDatabase(true);
+    }
+
+    @Test
+    void deleteMatchesFreshRead() {
+        wordService.deleteWord(USERNAME, 2L);
+
+        // 删除后首页不满且后面还有数据时首页缓存会被删除而不是修补，其余缓存必须仍然存在并且一致
+        assertCacheMatches("wordListV2", freshList(), true);
+        assertCacheMatches("wordPageV1", freshPage(), false);
+        assertCacheMatches("incorrectWordsV2", freshIncorrect(), true);
+        assertNull(cacheManager.getCache("studyOverviewV1").get(WordCacheUpdater.dailyKey(USERNAME)));
+    }
+
+    @Test
+    void reviewMatchesFreshRead() {
+        wordService.review(USERNAME, 40L, new ReviewRequest(false));
+
+        assertReviewCachesMatchDatabase();
+        assertStatsEvicted();
+    }
+
+    @Test
+    void correctReviewPatchesIncorrectWordsInPlace() {
+        wordService.review(USERNAME, 40L, new ReviewRequest(false));
+        cacheManager.getCache("incorrectWordsV2").put(USERNAME, wordService.incorrectWords(USERNAME));
+
+        wordService.review(USERNAME, 40L, new ReviewRequest(true));
+
+        assertCachesMatchDatabase(true);
+    }
+
+    @Test
+    void reviewBatchMatchesFreshRead() {
+        Instant base = Instant.now().minusSeconds(60);
+        wordService.reviewBatch(USERNAME, List.of(
+                new BatchReviewItem(10L, false, base),
+                new BatchReviewItem(20L, true, base.plusSeconds(1)),
+                new BatchReviewItem(30L, false, base.plusSeconds(2)),
+                new BatchReviewItem(10L, true, base.plusSeconds(3))));
+
+        assertReviewCachesMatchDatabase();
+        assertStatsEvicted();
+    }
+
+    @Test
+    void failedImportStillEvictsCaches() {
+        // 每行一个批次：第一批提交成功，第二批失败
+        doAnswer(inv -> null).doThrow(new DataIntegrityViolationException("boom"))
+                .when(wordJdbcRepository).insertAll(anyList(), anyLong());
+        ImportProgress progress = new ImportProgress();
+        InputStream input = new ByteArrayInputStream("alpha 甲\nbeta 乙\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> wordService.importWords(USERNAME, "book.txt", input, progress));
+
+        assertEquals(1, progress.getImportedCount());
+        for (String cacheName : List.of("wordListV2", "wordPageV1", "incorrectWordsV2")) {
+            assertNull(cacheManager.getCache(cacheName).get(USERNAME), cacheName);
+        }
+        assertNull(cacheManager.getCache("studyOverviewV1").get(WordCacheUpdater.dailyKey(USERNAME)));
+    }
+
+    @Test
+    void concurrentWritesDoNotLoseUpdates() throws Exception {
+        int writers = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            int n = i;
+            futures.add(pool.submit(() -> {
+                start.await();
+                if (n % 2 == 0) {
+                    wordService.createWord(USERNAME, new WordPayload("concurrent" + n, "并发", null, null, null, null, null, null));
+                } else {
+                    wordService.review(USERNAME, (long) (20 + n), new ReviewRequest(false));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        assertCacheMatches("wordListV2", freshList(), true);
+        assertCacheMatches("incorrectWordsV2", freshIncorrect(), false);
+    }
+
+    /**
+     * 两个节点各有自己的 L1，共享 L2（用 ConcurrentMapCache 代替 Redis），失效广播走模拟的 pub/sub。
+     * 节点 A 漏收了 B 的广播、L1 里还是旧列表时，A 的修补也必须从 L2 的当前值开始，不能覆盖掉 B 的改动；
+     * A 写完后 B 的 L1 被广播清掉，下一次读到的是 L2 的新值。
+     */
+    @Test
+    void twoLevelPatchesStartFromSharedValueAndEvictOtherNodes() {
+        ConcurrentMapCacheManager shared = new ConcurrentMapCacheManager(CACHE_NAMES);
+        List<TwoLevelCacheManager> subscribers = new CopyOnWriteArrayList<>();
+        StringRedisTemplate redis = lockingRedis(subscribers);
+        TwoLevelCacheManager nodeA = twoLevelCacheManager(shared, redis);
+        TwoLevelCacheManager nodeB = twoLevelCacheManager(shared, redis);
+        subscribers.add(nodeA);
+        subscribers.add(nodeB);
+        WordService serviceA = wordService(nodeA, redis);
+        WordService serviceB = wordService(nodeB, redis);
+
+        Cache listA = nodeA.getCache("wordListV2");
+        Cache listB = nodeB.getCache("wordListV2");
+        listA.put(USERNAME, freshList());
+        assertNotNull(listA.get(USERNAME));
+        assertNotNull(listB.get(USERNAME));
+
+        // A 漏收这次广播，L1 里留着旧列表
+        subscribers.remove(nodeA);
+        serviceB.createWord(USERNAME, new WordPayload("fromB", "节点 B 新增", null, null, null, null, null, null));
+        subscribers.add(nodeA);
+        assertEquals(SEED_WORDS, ((List<?>) listA.get(USERNAME).get()).size());
+
+        serviceA.updateWord(USERNAME, 3L, new WordPayload("fromA", "节点 A 修改", null, null, null, null, null, null));
+
+        assertEquals(snapshot(freshList()), snapshot(shared.getCache("wordListV2").get(USERNAME).get()));
+        assertEquals(snapshot(freshList()), snapshot(listA.get(USERNAME).get()));
+        assertNull(localValue(listB), "B's L1 should have been evicted by A's broadcast");
+        assertEquals(snapshot(freshList()), snapshot(listB.get(USERNAME).get()));
+    }
+
+    private WordService wordService(CacheManager caches, StringRedisTemplate redis) {
+        return new WordService(
+                store.wordRepository(),
+                wordJdbcRepository,
+                null,
+                store.reviewRecordRepository(),
+                mock(WordSearchIndex.class),
+                store.reviewRecordJdbcRepository(),
+                inlineTransactions(),
+                new ReviewSchedulers(List.of(new DefaultReviewScheduler())),
+                mock(DueQueueService.class),
+                currentUserResolver(store.user),
+                new WordCacheUpdater(caches, redis));
+    }
+
+    private static TwoLevelCacheManager twoLevelCacheManager(CacheManager shared, StringRedisTemplate redis) {
+        return new TwoLevelCacheManager(shared, redis, new SimpleMeterRegistry(), 10_000, Duration.ofMinutes(1),
+                new CacheLoadCoordinator(redis, Runnable::run, false, Duration.ofSeconds(1)), Set.of(), Duration.ofMinutes(5));
+    }
+
+    private static Object localValue(Cache twoLevelCache) {
+        return ((com.github.benmanes.caffeine.cache.Cache<?, ?>) twoLevelCache.getNativeCache()).asMap().get(USERNAME);
+    }
+
+    private void primeCaches() {
+        cacheManager.getCache("wordListV2").put(USERNAME, wordService.listWords(USERNAME, null));
+        cacheManager.getCache("wordPageV1").put(USERNAME, wordService.listWordPage(USERNAME, null, WordService.DEFAULT_PAGE_SIZE));
+        cacheManager.getCache("incorrectWordsV2").put(USERNAME, wordService.incorrectWords(USERNAME));
+        StudyStatsResponse stats = new StudyStatsResponse(3, 2, null, 7);
+        cacheManager.getCache("studyStatsV2").put(WordCacheUpdater.dailyKey(USERNAME), stats);
+        cacheManager.getCache("studyOverviewV1").put(WordCacheUpdater.dailyKey(USERNAME),
+                new StudyOverviewResponse(stats, SEED_WORDS, 0));
+    }
+
+    private void assertCachesMatchDatabase(boolean pageMustBeCached) {
+        assertCacheMatches("wordListV2", freshList(), true);
+        assertCacheMatches("wordPageV1", freshPage(), pageMustBeCached);
+        assertCacheMatches("incorrectWordsV2", freshIncorrect(), true);
+    }
+
+    // 错词列表按最近一次答错时间排序，有答错时直接删除，下一次读取走数据库
+    private void assertReviewCachesMatchDatabase() {
+        assertCacheMatches("wordListV2", freshList(), true);
+        assertCacheMatches("wordPageV1", freshPage(), true);
+        assertNull(cacheManager.getCache("incorrectWordsV2").get(USERNAME));
+    }
+
+    // 计数器类缓存写入时直接删除，下一次读取走数据库
+    private void assertStatsEvicted() {
+        assertNull(cacheManager.getCache("studyStatsV2").get(WordCacheUpdater.dailyKey(USERNAME)));
+        assertNull(cacheManager.getCache("studyOverviewV1").get(WordCacheUpdater.dailyKey(USERNAME)));
+    }
+
+    private void assertCacheMatches(String cacheName, Object fresh, boolean mustBeCached) {
+        Cache.ValueWrapper cached = cacheManager.getCache(cacheName).get(USERNAME);
+        if (mustBeCached) {
+            assertNotNull(cached, cacheName + " should have been patched, not evicted");
+        }
+        if (cached != null) {
+            assertEquals(snapshot(fresh), snapshot(cached.get()), cacheName);
+        }
+    }
+
+    private Object freshList() {
+        return wordService.listWords(USERNAME, null);
+    }
+
+    private Object freshPage() {
+        return wordService.listWordPage(USERNAME, null, WordService.DEFAULT_PAGE_SIZE);
+    }
+
+    private Object freshIncorrect() {
+        return wordService.incorrectWords(USERNAME);
+    }
+
+    // 比较关心的字段，不依赖实体是否同一个实例
+    private static Object snapshot(Object value) {
+        if (value instanceof WordPageResponse page) {
+            return List.of(snapshot(page.items()), String.valueOf(page.nextCursor()));
+        }
+        List<?> words = (List<?>) value;
+        return words.stream()
+                .map(Word.class::cast)
+                .map(w -> List.of(w.getId(), w.getTerm(), w.getDefinition(), String.valueOf(w.getUpdatedAt()),
+                        String.valueOf(w.getFamiliarity()), String.valueOf(w.getNextReviewAt()),
+                        String.valueOf(w.getReviewCount())))
+                .collect(Collectors.toList());
+    }
+
+    private static TransactionTemplate inlineTransactions() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        return transactionTemplate;
+    }
+
+    private static CurrentUserResolver currentUserResolver(User user) {
+        CurrentUserResolver resolver = mock(CurrentUserResolver.class);
+        when(resolver.resolve(USERNAME)).thenReturn(user);
+        return resolver;
+    }
+
+    /**
+     * 模拟 Redis：SET NX 锁、解锁脚本，以及把缓存失效广播同步投递给 {@code subscribers}。
+     */
+    @SuppressWarnings("unchecked")
+    private static StringRedisTemplate lockingRedis(List<TwoLevelCacheManager> subscribers) {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> ops = mock(ValueOperations.class);
+        Map<String, String> locks = new LinkedHashMap<>();
+        when(redis.opsForValue()).thenReturn(ops);
+        when(ops.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenAnswer(inv -> {
+            synchronized (locks) {
+                return locks.putIfAbsent(inv.getArgument(0), inv.getArgument(1)) == null;
+            }
+        });
+        when(redis.execute(any(RedisScript.class), anyList(), any())).thenAnswer(inv -> {
+            String key = inv.<List<String>>getArgument(1).get(0);
+            synchronized (locks) {
+                return locks.remove(key, inv.getArgument(2)) ? 1L : 0L;
+            }
+        });
+        when(redis.convertAndSend(anyString(), any())).thenAnswer(inv -> {
+            DefaultMessage message = new DefaultMessage(inv.<String>getArgument(0).getBytes(StandardCharsets.UTF_8),
+                    String.valueOf(inv.<Object>getArgument(1)).getBytes(StandardCharsets.UTF_8));
+            for (TwoLevelCacheManager subscriber : subscribers) {
+                subscriber.onMessage(message, null);
+            }
+            return (long) subscribers.size();
+        });
+        return redis;
+    }
+
+    /**
+     * 内存中的单词表和复习记录表。更新时间按秒递增，保证排序确定。
+     */
+    private static final class WordStore {
+        private final User user;
+        private final Map<Long, Word> words = new LinkedHashMap<>();
+        private final List<Object[]> records = new ArrayList<>();
+        // reviewBatch 在事务内修改加载出的实体，flush 时才写回
+        private final List<Word> managed = new ArrayList<>();
+        private LocalDateTime clock = LocalDateTime.of(2024, 1, 1, 8, 0);
+        private long nextId = 1;
+
+        WordStore(User user) {
+            this.user = user;
+        }
+
+        synchronized Word insert(Word word) {
+            word.setId(nextId++);
+            word.setOwner(user);
+            word.setCreatedAt(tick());
+            word.setUpdatedAt(word.getCreatedAt());
+            words.put(word.getId(), copy(word));
+            return word;
+        }
+
+        synchronized Word save(Word word) {
+            if (word.getId() == null) {
+                return insert(word);
+            }
+            word.setUpdatedAt(tick());
+            words.put(word.getId(), copy(word));
+            return word;
+        }
+
+        synchronized void addRecord(Long wordId, boolean correct, LocalDateTime reviewedAt) {
+            records.add(new Object[]{wordId, correct, reviewedAt != null ? reviewedAt : tick()});
+        }
+
+        synchronized List<Word> sorted() {
+            return words.values().stream()
+                    .sorted(Comparator.comparing(Word::getUpdatedAt).reversed()
+                            .thenComparing(Word::getId, Comparator.reverseOrder()))
+                    .map(WordStore::copy)
+                    .collect(Collectors.toList());
+        }
+
+        synchronized List<ReviewRecord> incorrectRecords() {
+            return records.stream()
+                    .filter(r -> !(Boolean) r[1] && words.containsKey((Long) r[0]))
+                    .sorted(Comparator.comparing((Object[] r) -> (LocalDateTime) r[2]).reversed())
+                    .map(r -> ReviewRecord.builder().word(copy(words.get((Long) r[0]))).correct(false)
+                            .reviewedAt((LocalDateTime) r[2]).build())
+                    .collect(Collectors.toList());
+        }
+
+        synchronized Optional<Word> find(Long id) {
+            return Optional.ofNullable(words.get(id)).map(WordStore::copy);
+        }
+
+        synchronized List<Word> findManaged(Collection<Long> ids) {
+            List<Word> found = ids.stream().map(words::get).filter(w -> w != null).map(WordStore::copy)
+                    .collect(Collectors.toList());
+            managed.addAll(found);
+            return found;
+        }
+
+        synchronized void flush() {
+            for (Word word : managed) {
+                save(word);
+            }
+            managed.clear();
+        }
+
+        synchronized void delete(Word word) {
+            words.remove(word.getId());
+        }
+
+        private LocalDateTime tick() {
+            clock = clock.plusSeconds(1);
+            return clock;
+        }
+
+        WordRepository wordRepository() {
+            WordRepository repository = mock(WordRepository.class);
+            when(repository.findByOwnerUsernameOrderByUpdatedAtDesc(USERNAME)).thenAnswer(inv -> sorted());
+            when(repository.findFirstPage(eq(USERNAME), any(Pageable.class))).thenAnswer(inv -> {
+                List<Word> all = sorted();
+                return new ArrayList<>(all.subList(0, Math.min(all.size(), inv.<Pageable>getArgument(1).getPageSize())));
+            });
+            when(repository.findByIdAndOwnerUsername(anyLong(), eq(USERNAME))).thenAnswer(inv -> find(inv.getArgument(0)));
+            when(repository.findForReview(anyLong(), eq(USERNAME))).thenAnswer(inv -> find(inv.getArgument(0)));
+            when(repository.findForReview(eq(USERNAME), anyCollection()))
+                    .thenAnswer(inv -> findManaged(inv.getArgument(1)));
+            when(repository.save(any(Word.class))).thenAnswer(inv -> save(inv.getArgument(0)));
+            doAnswer(inv -> {
+                delete(inv.getArgument(0));
+                return null;
+            }).when(repository).delete(any(Word.class));
+            doAnswer(inv -> {
+                flush();
+                return null;
+            }).when(repository).flush();
+            return repository;
+        }
+
+        ReviewRecordRepository reviewRecordRepository() {
+            ReviewRecordRepository repository = mock(ReviewRecordRepository.class);
+            when(repository.findIncorrectRecordsWithWord(USERNAME)).thenAnswer(inv -> incorrectRecords());
+            when(repository.save(any(ReviewRecord.class))).thenAnswer(inv -> {
+                ReviewRecord record = inv.getArgument(0);
+                addRecord(record.getWord().getId(), record.isCorrect(), record.getReviewedAt());
+                return record;
+            });
+            return repository;
+        }
+
+        ReviewRecordJdbcRepository reviewRecordJdbcRepository() {
+            ReviewRecordJdbcRepository repository = mock(ReviewRecordJdbcRepository.class);
+            doAnswer(inv -> {
+                // 作答时间是客户端给的，可能早于种子数据，统一排到最后
+                for (ReviewRecord record : inv.<List<ReviewRecord>>getArgument(0)) {
+                    addRecord(record.getWord().getId(), record.isCorrect(), null);
+                }
+                return null;
+            }).when(repository).insertAll(anyList());
+            return repository;
+        }
+
+        private static Word copy(Word w) {
+            return Word.builder()
+                    .id(w.getId()).term(w.getTerm()).definition(w.getDefinition()).example(w.getExample())
+                    .familiarity(w.getFamiliarity()).memoryStrength(w.getMemoryStrength())
+                    .nextReviewAt(w.getNextReviewAt()).lastReviewedAt(w.getLastReviewedAt())
+                    .reviewCount(w.getReviewCount()).lapseCount(w.getLapseCount())
+                    .stability(w.getStability()).difficulty(w.getDifficulty()).repetitions(w.getRepetitions())
+                    .createdAt(w.getCreatedAt()).updatedAt(w.getUpdatedAt()).owner(w.getOwner())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.wordapp.tools;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 本地桩服务，模拟 /v1/chat/completions 的慢响应和 429/503，用来测试和联调 AiService 的超时、重试、并发上限和熔断。
+ * <p>
+ * 测试中按顺序排好每个请求的应答（{@link #enqueue}），排完后使用默认应答。也可以单独启动做联调：
+ * <pre>
+ * java -cp target/test-classes com.example.wordapp.tools.AiStubServer 18080 2000 0.3
+ * GPT_API_BASE=http://localhost:18080 GPT_API_KEY=stub mvn spring-boot:run
+ * </pre>
+ * 参数依次为：端口、每个请求的延迟毫秒数、失败比例（失败时一半返回 429 带 Retry-After，一半返回 503）。
+ */
+public final class AiStubServer implements AutoCloseable {
+    public static final String CONTENT = "《水平分析》桩服务返回的分析。";
+    private static final String COMPLETION = "{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"" + CONTENT + "\"}}]}";
+
+    /**
+     * 一次应答。
+     *
+     * @param retryAfter Retry-After 头的值，为 null 时不带
+     */
+    public record Reply(int status, long delayMillis, String retryAfter) {
+        public static Reply ok() {
+            return new Reply(200, 0, null);
+        }
+
+        public static Reply status(int status) {
+            return new Reply(status, 0, null);
+        }
+
+        public Reply delayed(long millis) {
+            return new Reply(status, millis, retryAfter);
+        }
+
+        public Reply retryAfter(String value) {
+            return new Reply(status, delayMillis, value);
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Queue<Reply> script = new ConcurrentLinkedQueue<>();
+    private final Supplier<Reply> defaultReply;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private AiStubServer(int port, Supplier<Reply> defaultReply) throws IOException {
+        this.defaultReply = defaultReply;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.setExecutor(executor);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.start();
+    }
+
+    /**
+     * 在指定端口（0 表示随机空闲端口）启动，脚本为空时按 {@code defaultReply} 应答。
+     */
+    public static AiStubServer start(int port, Supplier<Reply> defaultReply) throws IOException {
+        return new AiStubServer(port, defaultReply);
+    }
+
+    public AiStubServer enqueue(Reply... replies) {
+        script.addAll(List.of(replies));
+        return this;
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * 已收到的请求数（含还在延迟中的）。
+     */
+    public int requests() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        // 打断还在模拟延迟的处理线程
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        exchange.getRequestBody().readAllBytes();
+        Reply reply = script.poll();
+        if (reply == null) {
+            reply = defaultReply.get();
+        }
+        try {
+            Thread.sleep(reply.delayMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            exchange.close();
+            return;
+        }
+        if (reply.retryAfter() != null) {
+            exchange.getResponseHeaders().add("Retry-After", reply.retryAfter());
+        }
+        respond(exchange, reply.status(), reply.status() == 200 ? COMPLETION
+                : "{\"error\":{\"message\":\"HTTP " + reply.status() + "\"}}");
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 18080;
+        long delayMillis = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        double failureRate = args.length > 2 ? Double.parseDouble(args[2]) : 0;
+
+        start(port, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextDouble() >= failureRate) {
+                return Reply.ok().delayed(delayMillis);
+            }
+            return random.nextBoolean()
+                    ? Reply.status(429).delayed(delayMillis).retryAfter("1")
+                    : Reply.status(503).delayed(delayMillis);
+        });
+        System.out.printf("AI stub listening on http://localhost:%d (delay=%dms, failure-rate=%.2f)%n", port, delayMillis, failureRate);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.wordapp.tools;
+
+import com.example.wordapp.config.CacheCodec;
+import com.example.wordapp.config.CachedValue;
+import com.example.wordapp.entity.Word;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 缓存编码对比：旧的 GenericJackson2JsonRedisSerializer（EVERYTHING 类型信息）与 {@link CacheCodec}
+ * 在不同大小的单词列表上的载荷字节数和编解码耗时。
+ * <p>
+ * 用法（先 {@code mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt}）：
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) com.example.wordapp.tools.CacheCodecBenchmark 50 500 5000
+ * </pre>
+ */
+public final class CacheCodecBenchmark {
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 500;
+    // 防止 JIT 把编解码结果当作无用代码消除
+    private static volatile long blackhole;
+
+    private CacheCodecBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[]{50, 500, 5000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+        ObjectMapper smile = CacheCodec.smileMapper();
+        JavaType wordList = smile.getTypeFactory().constructCollectionType(List.class, Word.class);
+        List<Codec> codecs = List.of(
+                new Codec("json+typing (old)", new GenericJackson2JsonRedisSerializer(legacyMapper())),
+                new Codec("smile", new CacheCodec(smile, wordList, 1, 0)),
+                new Codec("smile+deflate", new CacheCodec(smile, wordList, 1, 2048)));
+
+        System.out.printf("%-8s %-20s %12s %14s %14s%n", "words", "codec", "bytes", "encode us", "decode us");
+        for (int size : sizes) {
+            List<Word> words = sampleWords(size);
+            for (Codec codec : codecs) {
+                codec.run(size, words);
+            }
+        }
+    }
+
+    // 与改动前 CacheConfig 中的配置相同
+    private static ObjectMapper legacyMapper() {
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.activateDefaultTypingAsProperty(
+                BasicPolymorphicTypeValidator.builder().allowIfBaseType(Object.class).build(),
+                ObjectMapper.DefaultTyping.EVERYTHING,
+                JsonTypeInfo.Id.CLASS.getDefaultPropertyName()
+        );
+        return mapper;
+    }
+
+    private static List<Word> sampleWords(int size) {
+        SplittableRandom random = new SplittableRandom(size);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 8, 0);
+        List<Word> words = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String term = randomTerm(random);
+            LocalDateTime created = base.plusMinutes(random.nextInt(500_000));
+            words.add(Word.builder()
+                    .id(100_000L + i)
+                    .term(term)
+                    .definition("n. " + randomTerm(random) + " " + randomTerm(random))
+                    .example("The " + term + " was mentioned in the " + randomTerm(random) + " report.")
+                    .meanings("名词：" + term + "；动词：" + randomTerm(random))
+                    .examples("1. " + term + " example one. 2. " + term + " example two.")
+                    .wordRoot(term.substring(0, Math.min(4, term.length())))
+                    .similarWords(randomTerm(random) + "," + randomTerm(random))
+                    .examTag(random.nextBoolean() ? "CET4" : "IELTS")
+                    .familiarity(random.nextInt(6))
+                    .memoryStrength(random.nextDouble())
+                    .nextReviewAt(created.plusDays(random.nextInt(30)))
+                    .lastReviewedAt(created.plusDays(random.nextInt(10)))
+                    .reviewCount(random.nextInt(20))
+                    .lapseCount(random.nextInt(5))
+                    .createdAt(created)
+                    .updatedAt(created.plusHours(random.nextInt(100)))
+                    .build());
+        }
+        return words;
+    }
+
+    private static String randomTerm(SplittableRandom random) {
+        int length = 4 + random.nextInt(8);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+
+    private record Codec(String name, RedisSerializer<Object> serializer) {
+        void run(int size, List<Word> words) {
+            byte[] bytes = serializer.serialize(words);
+            int rounds = Math.max(5, MEASURED_ROUNDS * 50 / Math.max(50, size));
+            for (int i = 0; i < WARMUP_ROUNDS * 50 / Math.max(50, size) + 5; i++) {
+                serializer.deserialize(serializer.serialize(words));
+            }
+            long sink = 0;
+            long startedAt = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                sink += serializer.serialize(words).length;
+            }
+            double encodeMicros = (System.nanoTime() - startedAt) / 1e3 / rounds;
+            startedAt = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                Object decoded = serializer.deserialize(bytes);
+                sink += ((List<?>) (decoded instanceof CachedValue cached ? cached.value() : decoded)).size();
+            }
+            double decodeMicros = (System.nanoTime() - startedAt) / 1e3 / rounds;
+            blackhole = sink;
+            System.out.printf("%-8d %-20s %,12d %,14.1f %,14.1f%n", size, name, bytes.length, encodeMicros, decodeMicros);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.wordapp.tools;
+
+import com.example.wordapp.entity.User;
+import com.example.wordapp.entity.Word;
+import com.example.wordapp.repository.WordJdbcRepository;
+import com.example.wordapp.repository.WordRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * 导入写库对比：改动前逐批 {@code WordRepository.saveAll}（IDENTITY 主键，Hibernate 逐行 INSERT 并取回自增 id）
+ * 与 {@link WordJdbcRepository#insertAll} 的 JDBC batch（分别在开启和关闭 rewriteBatchedStatements 时），
+ * 在同一个 MySQL 上写入同样的单词，输出每种方式的 rows/s。
+ * <p>
+ * 需要一个已经由应用建好表的库（不会改表结构）；运行时新建一个临时用户，结束后删除它和它的单词。
+ * 连接参数与 application.yml 相同，取自 MYSQL_HOST / MYSQL_PORT / MYSQL_DB / MYSQL_USER / MYSQL_PASSWORD。
+ * 用法（先 {@code mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt}）：
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) com.example.wordapp.tools.ImportBatchBenchmark 20000 500 3
+ * </pre>
+ * 参数依次为：每轮写入行数、每批行数（对应 app.import.batch-size）、计时轮数（另有一轮预热不计）。
+ */
+public final class ImportBatchBenchmark {
+    private final WordRepository wordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final WordJdbcRepository rewriting;
+    private final WordJdbcRepository plain;
+    private final JdbcTemplate jdbcTemplate;
+
+    private ImportBatchBenchmark(WordRepository wordRepository, TransactionTemplate transactionTemplate,
+                                 WordJdbcRepository rewriting, WordJdbcRepository plain, JdbcTemplate jdbcTemplate) {
+        this.wordRepository = wordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.rewriting = rewriting;
+        this.plain = plain;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int batchSize = args.length > 1 ? Math.max(1, Integer.parseInt(args[1])) : 500;
+        int rounds = args.length > 2 ? Math.max(1, Integer.parseInt(args[2])) : 3;
+
+        String url = "jdbc:mysql://" + env("MYSQL_HOST", "localhost") + ":" + env("MYSQL_PORT", "3306") + "/"
+                + env("MYSQL_DB", "word_app") + "?useSSL=false&allowPublicKeyRetrieval=true&characterEncoding=utf8";
+        HikariDataSource rewritingSource = dataSource(url + "&rewriteBatchedStatements=true");
+        HikariDataSource plainSource = dataSource(url + "&rewriteBatchedStatements=false");
+
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(rewritingSource);
+        factoryBean.setPackagesToScan("com.example.wordapp.entity");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        // 与 application.yml 和 Spring Boot 默认值一致，表结构不动
+        factoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.dialect", "org.hibernate.dialect.MySQLDialect",
+                "hibernate.hbm2ddl.auto", "none",
+                "hibernate.jdbc.batch_size", "50",
+                "hibernate.order_updates", "true",
+                "hibernate.physical_naming_strategy", "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy",
+                "hibernate.implicit_naming_strategy", "org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy"));
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+        try {
+            WordRepository wordRepository = new JpaRepositoryFactory(
+                    SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory))
+                    .getRepository(WordRepository.class);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(rewritingSource);
+            new ImportBatchBenchmark(wordRepository,
+                    new TransactionTemplate(new JpaTransactionManager(entityManagerFactory)),
+                    new WordJdbcRepository(jdbcTemplate),
+                    new WordJdbcRepository(new JdbcTemplate(plainSource)),
+                    jdbcTemplate)
+                    .run(rows, batchSize, rounds);
+        } finally {
+            entityManagerFactory.close();
+            rewritingSource.close();
+            plainSource.close();
+        }
+    }
+
+    private void run(int rows, int batchSize, int rounds) {
+        User owner = createOwner();
+        try {
+            System.out.printf("rows=%d batch-size=%d rounds=%d%n", rows, batchSize, rounds);
+            System.out.printf("%-22s %12s %12s%n", "mode", "avg rows/s", "best rows/s");
+            measure("saveAll (old)", rows, batchSize, rounds, owner,
+                    batch -> transactionTemplate.executeWithoutResult(status -> wordRepository.saveAll(batch)));
+            measure("jdbc batch", rows, batchSize, rounds, owner, batch -> plain.insertAll(batch, owner.getId()));
+            measure("jdbc batch + rewrite", rows, batchSize, rounds, owner, batch -> rewriting.insertAll(batch, owner.getId()));
+        } finally {
+            jdbcTemplate.update("delete from words where user_id = ?", owner.getId());
+            jdbcTemplate.update("delete from users where id = ?", owner.getId());
+        }
+    }
+
+    private void measure(String mode, int rows, int batchSize, int rounds, User owner, BatchWriter writer) {
+        double[] rates = new double[rounds];
+        for (int round = -1; round < rounds; round++) {
+            List<Word> words = sampleWords(rows, owner, round + 1);
+            long startedAt = System.nanoTime();
+            for (int from = 0; from < rows; from += batchSize) {
+                writer.write(new ArrayList<>(words.subList(from, Math.min(rows, from + batchSize))));
+            }
+            long elapsedNanos = Math.max(1, System.nanoTime() - startedAt);
+            jdbcTemplate.update("delete from words where user_id = ?", owner.getId());
+            if (round >= 0) {
+                rates[round] = rows * 1e9 / elapsedNanos;
+            }
+        }
+        System.out.printf("%-22s %12.0f %12.0f%n", mode,
+                Arrays.stream(rates).average().orElse(0), Arrays.stream(rates).max().orElse(0));
+    }
+
+    private User createOwner() {
+        String username = "import-bench-" + UUID.randomUUID().toString().substring(0, 8);
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "insert into users (username, password, created_at) values (?, '-', now())",
+                    Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, username);
+            return ps;
+        }, keyHolder);
+        return User.builder().id(keyHolder.getKey().longValue()).username(username).build();
+    }
+
+    // 与导入时 ImportBatch 构造的单词相同的字段
+    private static List<Word> sampleWords(int rows, User owner, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Word> words = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            words.add(Word.builder()
+                    .term("word" + random.nextInt(1_000_000))
+                    .definition("n. 释义 " + i)
+                    .example("Example sentence " + i + ".")
+                    .meanings("释义一；释义二")
+                    .examples("Example sentence " + i + ".；例句 " + i)
+                    .wordRoot("root")
+                    .similarWords("similar、alike")
+                    .examTag("CET4")
+                    .memoryStrength(0.2)
+                    .owner(owner)
+                    .build());
+        }
+        return words;
+    }
+
+    private static HikariDataSource dataSource(String url) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(env("MYSQL_USER", "root"));
+        dataSource.setPassword(env("MYSQL_PASSWORD", ""));
+        dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        dataSource.setMaximumPoolSize(2);
+        return dataSource;
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter {
+        void write(List<Word> batch);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.wordapp.tools;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 登录高峰模拟（不含数据库和网络）：一批登录请求同时到达，期间持续有普通接口请求，
+ * 对比两种做法下登录和普通请求的延迟分位数：
+ * <ul>
+ *     <li>inline：改动前，BCrypt 在请求线程（模拟 Tomcat 的 200 个线程）上执行</li>
+ *     <li>offload：BCrypt 放到线程数等于 CPU 核数、队列有界的线程池，请求线程不等待，队列满的请求直接拒绝（429）</li>
+ * </ul>
+ * 用法（先 {@code mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt}）：
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) com.example.wordapp.tools.PasswordHashingBenchmark 400 10 100
+ * </pre>
+ * 参数依次为：同时到达的登录数、BCrypt 强度、offload 队列上限。
+ */
+public final class PasswordHashingBenchmark {
+    private static final int REQUEST_THREADS = 200;
+    private static final int ORDINARY_REQUESTS = 2000;
+    private static final long ORDINARY_INTERVAL_MICROS = 500;
+    private static final long ORDINARY_WORK_MICROS = 200;
+    // 防止 JIT 把结果当作无用代码消除
+    private static volatile long blackhole;
+
+    private PasswordHashingBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int logins = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int strength = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int queueCapacity = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int cores = Runtime.getRuntime().availableProcessors();
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        String hash = encoder.encode("benchmark-password");
+        // 预热
+        for (int i = 0; i < cores; i++) {
+            encoder.matches("benchmark-password", hash);
+        }
+
+        System.out.printf("logins=%d strength=%d cores=%d request-threads=%d%n", logins, strength, cores, REQUEST_THREADS);
+        System.out.printf("%-8s %10s %12s %12s %14s %14s%n",
+                "mode", "rejected", "login p50", "login p99", "ordinary p50", "ordinary p99");
+        run("inline", logins, encoder, hash, null);
+        ThreadPoolExecutor hashPool = new ThreadPoolExecutor(cores, cores, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, queueCapacity)));
+        run("offload", logins, encoder, hash, hashPool);
+        hashPool.shutdown();
+    }
+
+    private static void run(String mode, int logins, BCryptPasswordEncoder encoder, String hash,
+                            ThreadPoolExecutor hashPool) throws InterruptedException {
+        ExecutorService requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+        ConcurrentLinkedQueue<Long> loginLatencies = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Long> ordinaryLatencies = new ConcurrentLinkedQueue<>();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(logins + ORDINARY_REQUESTS);
+
+        for (int i = 0; i < logins; i++) {
+            long arrivedAt = System.nanoTime();
+            requestThreads.execute(() -> {
+                Runnable hashing = () -> {
+                    blackhole += encoder.matches("benchmark-password", hash) ? 1 : 0;
+                    loginLatencies.add(System.nanoTime() - arrivedAt);
+                    done.countDown();
+                };
+                if (hashPool == null) {
+                    hashing.run();
+                    return;
+                }
+                try {
+                    hashPool.execute(hashing);
+                } catch (RejectedExecutionException ex) {
+                    rejected.incrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        for (int i = 0; i < ORDINARY_REQUESTS; i++) {
+            long arrivedAt = System.nanoTime();
+            requestThreads.execute(() -> {
+                busyWork(ORDINARY_WORK_MICROS);
+                ordinaryLatencies.add(System.nanoTime() - arrivedAt);
+                done.countDown();
+            });
+            busyWait(ORDINARY_INTERVAL_MICROS);
+        }
+        done.await();
+        requestThreads.shutdown();
+        System.out.printf("%-8s %10d %10.1fms %10.1fms %12.2fms %12.2fms%n", mode, rejected.get(),
+                percentile(loginLatencies, 50), percentile(loginLatencies, 99),
+                percentile(ordinaryLatencies, 50), percentile(ordinaryLatencies, 99));
+    }
+
+    private static void busyWork(long micros) {
+        long end = System.nanoTime() + micros * 1000;
+        long sink = 0;
+        while (System.nanoTime() < end) {
+            sink++;
+        }
+        blackhole += sink;
+    }
+
+    private static void busyWait(long micros) {
+        long end = System.nanoTime() + micros * 1000;
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static double percentile(ConcurrentLinkedQueue<Long> latencies, int p) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        Collections.sort(sorted);
+        int index = Math.min(sorted.size() - 1, (int) Math.ceil(p / 100.0 * sorted.size()) - 1);
+        return sorted.get(Math.max(0, index)) / 1e6;
+    }
+}
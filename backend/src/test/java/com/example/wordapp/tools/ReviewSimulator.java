@@ -0,0 +1,292 @@
+package com.example.wordapp.tools;
+
+import com.example.wordapp.entity.SchedulerType;
+import com.example.wordapp.service.DefaultReviewScheduler;
+import com.example.wordapp.service.FsrsReviewScheduler;
+import com.example.wordapp.service.ReviewScheduler;
+import com.example.wordapp.service.ReviewState;
+import com.example.wordapp.service.Sm2ReviewScheduler;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 离线复习模拟器：在进程内合成大量用户的学习/复习过程，走与线上 {@code WordService.review} 相同的调度器，
+ * 用来比较不同调度算法的复习量，不依赖 MySQL / Redis / Spring 容器。
+ * <p>
+ * 每个用户每天在一个随机时刻学习一次：先复习所有到期单词，再学习若干新词。
+ * 是否答对由一个隐藏的"真实记忆"模型决定（与调度器无关），用来模拟真实用户的遗忘。
+ * 按用户切分成 fork-join 任务并行，每个任务内部只用基本类型数组，不为单次复习分配对象。
+ * <p>
+ * 用法（先 {@code mvn -q test-compile}）：
+ * <pre>
+ * java -cp target/test-classes:target/classes com.example.wordapp.tools.ReviewSimulator \
+ *     --users=100000 --words=5000 --days=60 --scheduler=FSRS --new-per-day=20 --seed=42
+ * </pre>
+ * 输出：复习吞吐、每日到期队列大小分布、每天写入的复习记录数。
+ */
+public final class ReviewSimulator {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int USERS_PER_TASK = 64;
+    // 到期队列直方图按精确值统计，超过上限的归入最后一格
+    private static final int MAX_TRACKED_DUE = 10_000;
+
+    private final ReviewScheduler scheduler;
+    private final int words;
+    private final int days;
+    private final int newPerDay;
+    private final long seed;
+
+    private ReviewSimulator(ReviewScheduler scheduler, int words, int days, int newPerDay, long seed) {
+        this.scheduler = scheduler;
+        this.words = words;
+        this.days = days;
+        this.newPerDay = newPerDay;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        int users = intOption(options, "users", 10_000);
+        int words = intOption(options, "words", 5_000);
+        int days = intOption(options, "days", 60);
+        int newPerDay = intOption(options, "new-per-day", 20);
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        int parallelism = intOption(options, "threads", Runtime.getRuntime().availableProcessors());
+        SchedulerType type = SchedulerType.valueOf(options.getOrDefault("scheduler", "DEFAULT").toUpperCase(Locale.ROOT));
+
+        ReviewSimulator simulator = new ReviewSimulator(scheduler(type), words, days, newPerDay, seed);
+        System.out.printf("Simulating %,d users x %,d words for %d days, scheduler=%s, new/day=%d, threads=%d%n",
+                users, words, days, type, newPerDay, parallelism);
+        long startedAt = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        Stats stats;
+        try {
+            stats = pool.invoke(simulator.new UserRangeTask(0, users));
+        } finally {
+            pool.shutdown();
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        stats.print(users, days, elapsedNanos);
+    }
+
+    private static ReviewScheduler scheduler(SchedulerType type) {
+        return switch (type) {
+            case SM2 -> new Sm2ReviewScheduler();
+            case FSRS -> new FsrsReviewScheduler();
+            default -> new DefaultReviewScheduler();
+        };
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        int parsed = value == null ? defaultValue : Integer.parseInt(value.replace("_", ""));
+        if (parsed <= 0) {
+            throw new IllegalArgumentException("--" + name + " must be positive");
+        }
+        return parsed;
+    }
+
+    /**
+     * 模拟一个用户的全部学习天数，结果累加到 stats。数组在同一任务内的多个用户之间复用。
+     */
+    private void simulateUser(int userId, UserBuffers buf, ReviewState state, Stats stats) {
+        SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + userId);
+        int learned = 0;
+        for (int day = 0; day < days; day++) {
+            // 每天 8:00 - 22:00 之间的某个时刻学习一次
+            long now = (long) day * MINUTES_PER_DAY + 8 * 60 + random.nextInt(14 * 60);
+            int due = 0;
+            for (int w = 0; w < learned; w++) {
+                if (buf.dueAt[w] <= now) {
+                    due++;
+                    review(w, now, buf, state, random, stats);
+                }
+            }
+            int fresh = Math.min(newPerDay, words - learned);
+            for (int i = 0; i < fresh; i++) {
+                int w = learned++;
+                buf.familiarity[w] = 0;
+                buf.memoryStrength[w] = 0.2;
+                buf.stability[w] = 0;
+                buf.difficulty[w] = 0;
+                buf.repetitions[w] = 0;
+                buf.lastReviewedAt[w] = -1;
+                // 真实记忆：初始半衰期 0.5-3 天，难词学得慢
+                buf.trueHardness[w] = 0.5 + random.nextDouble() * 1.5;
+                buf.trueStability[w] = 0.5 + random.nextDouble() * 2.5;
+                review(w, now, buf, state, random, stats);
+            }
+            stats.dueHistogram[Math.min(due, MAX_TRACKED_DUE)]++;
+            stats.maxDue = Math.max(stats.maxDue, due);
+            stats.rowsPerDay[day] += due + fresh;
+        }
+    }
+
+    private void review(int w, long now, UserBuffers buf, ReviewState state, SplittableRandom random, Stats stats) {
+        long last = buf.lastReviewedAt[w];
+        double elapsedDays = last < 0 ? -1 : (now - last) / (double) MINUTES_PER_DAY;
+        boolean correct;
+        if (last < 0) {
+            // 第一次见到的新词按 70% 认识
+            correct = random.nextDouble() < 0.7;
+        } else {
+            double recall = Math.pow(1 + elapsedDays / (9 * buf.trueStability[w]), -1);
+            correct = random.nextDouble() < recall;
+        }
+        buf.trueStability[w] = correct
+                ? buf.trueStability[w] * (1 + 2.5 / buf.trueHardness[w])
+                : Math.max(0.3, buf.trueStability[w] * 0.4);
+
+        state.reset(buf.familiarity[w], buf.memoryStrength[w], buf.stability[w], buf.difficulty[w], buf.repetitions[w]);
+        scheduler.review(state, correct, elapsedDays);
+        buf.familiarity[w] = state.familiarity;
+        buf.memoryStrength[w] = state.memoryStrength;
+        buf.stability[w] = state.stability;
+        buf.difficulty[w] = state.difficulty;
+        buf.repetitions[w] = state.repetitions;
+        buf.lastReviewedAt[w] = now;
+        buf.dueAt[w] = now + state.intervalMinutes;
+
+        stats.reviews++;
+        if (correct) {
+            stats.correct++;
+        }
+    }
+
+    private final class UserRangeTask extends RecursiveTask<Stats> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        private UserRangeTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Stats compute() {
+            if (to - from <= USERS_PER_TASK) {
+                Stats stats = new Stats(days);
+                UserBuffers buf = new UserBuffers(words);
+                ReviewState state = new ReviewState();
+                for (int user = from; user < to; user++) {
+                    simulateUser(user, buf, state, stats);
+                }
+                return stats;
+            }
+            int mid = (from + to) >>> 1;
+            UserRangeTask left = new UserRangeTask(from, mid);
+            left.fork();
+            Stats right = new UserRangeTask(mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    // 单个用户全部单词的调度状态，按列存放
+    private static final class UserBuffers {
+        private final int[] familiarity;
+        private final double[] memoryStrength;
+        private final double[] stability;
+        private final double[] difficulty;
+        private final int[] repetitions;
+        private final long[] lastReviewedAt;
+        private final long[] dueAt;
+        private final double[] trueStability;
+        private final double[] trueHardness;
+
+        private UserBuffers(int words) {
+            familiarity = new int[words];
+            memoryStrength = new double[words];
+            stability = new double[words];
+            difficulty = new double[words];
+            repetitions = new int[words];
+            lastReviewedAt = new long[words];
+            dueAt = new long[words];
+            trueStability = new double[words];
+            trueHardness = new double[words];
+        }
+    }
+
+    private static final class Stats {
+        private final long[] rowsPerDay;
+        private final long[] dueHistogram = new long[MAX_TRACKED_DUE + 1];
+        private long reviews;
+        private long correct;
+        private int maxDue;
+
+        private Stats(int days) {
+            this.rowsPerDay = new long[days];
+        }
+
+        private Stats merge(Stats other) {
+            for (int i = 0; i < rowsPerDay.length; i++) {
+                rowsPerDay[i] += other.rowsPerDay[i];
+            }
+            for (int i = 0; i < dueHistogram.length; i++) {
+                dueHistogram[i] += other.dueHistogram[i];
+            }
+            reviews += other.reviews;
+            correct += other.correct;
+            maxDue = Math.max(maxDue, other.maxDue);
+            return this;
+        }
+
+        private void print(int users, int days, long elapsedNanos) {
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf("Reviews: %,d in %.2f s (%,.0f reviews/s), correct rate %.1f%%%n",
+                    reviews, seconds, reviews / seconds, reviews == 0 ? 0 : correct * 100.0 / reviews);
+            System.out.printf("Daily due queue per user: p50=%d p90=%d p99=%d max=%d%n",
+                    percentile(0.50), percentile(0.90), percentile(0.99), maxDue);
+            long total = 0;
+            long peak = 0;
+            for (long rows : rowsPerDay) {
+                total += rows;
+                peak = Math.max(peak, rows);
+            }
+            System.out.printf("Review rows written per day: avg=%,.0f peak=%,d (%.1f per user per day)%n",
+                    total / (double) days, peak, total / (double) days / users);
+            int step = Math.max(1, days / 10);
+            for (int day = 0; day < days; day += step) {
+                System.out.printf("  day %3d: %,d rows%n", day + 1, rowsPerDay[day]);
+            }
+        }
+
+        private int percentile(double p) {
+            long samples = 0;
+            for (long count : dueHistogram) {
+                samples += count;
+            }
+            long threshold = (long) Math.ceil(samples * p);
+            long seen = 0;
+            for (int i = 0; i < dueHistogram.length; i++) {
+                seen += dueHistogram[i];
+                if (seen >= threshold && seen > 0) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+    }
+}